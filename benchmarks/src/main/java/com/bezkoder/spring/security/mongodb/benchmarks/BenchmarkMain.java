@@ -0,0 +1,23 @@
+package com.bezkoder.spring.security.mongodb.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of {@code benchmarks.jar}: JMH's own {@code Main}, except that
+ * results are written as JSON ({@code jmh-result.json}) unless {@code -rf}
+ * says otherwise, so runs can be compared across releases.
+ */
+public final class BenchmarkMain {
+  private BenchmarkMain() {}
+
+  public static void main(String[] args) throws Exception {
+    List<String> options = new ArrayList<>(Arrays.asList(args));
+    if (!options.contains("-rf")) {
+      options.add("-rf");
+      options.add("json");
+    }
+    org.openjdk.jmh.Main.main(options.toArray(new String[0]));
+  }
+}
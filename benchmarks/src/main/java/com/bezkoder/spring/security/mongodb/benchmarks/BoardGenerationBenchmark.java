@@ -0,0 +1,51 @@
+package com.bezkoder.spring.security.mongodb.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bezkoder.spring.security.mongodb.service.wordhunt.BoardGenerator;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.BoardSolver;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.SolvedBoard;
+
+/** Grid generation alone, and generation plus a full solve, per seed. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardGenerationBenchmark {
+
+  @Param({"4", "6"})
+  public int size;
+
+  private BoardSolver solver;
+  private long seed;
+
+  @Setup
+  public void setUp() {
+    solver = new BoardSolver(Fixtures.dictionary());
+  }
+
+  @Benchmark
+  public char[][] generateGrid() {
+    return BoardGenerator.generateGrid(seed++, size);
+  }
+
+  @Benchmark
+  public SolvedBoard generateAndSolve() {
+    long s = seed++;
+    return solver.solve(null, s, BoardGenerator.generateGrid(s, size));
+  }
+}
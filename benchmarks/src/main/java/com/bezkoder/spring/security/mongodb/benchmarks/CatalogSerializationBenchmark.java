@@ -0,0 +1,68 @@
+package com.bezkoder.spring.security.mongodb.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bezkoder.spring.security.mongodb.domain.store.Game;
+import com.bezkoder.spring.security.mongodb.service.store.GameFields;
+import com.bezkoder.spring.security.mongodb.service.store.GameSummary;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Serialising a 10,000-game catalog the way {@code /api/store/games} does:
+ * full documents, {@code fields=summary}, and the sparse fieldset the
+ * storefront grid asks for. Response sizes are printed during setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CatalogSerializationBenchmark {
+  static final String GRID_FIELDS = "id,title,developer,description,category,rating,price,imageUrl";
+
+  private ObjectMapper mapper;
+  private List<Game> games;
+  private GameFields gridFields;
+
+  @Setup
+  public void setUp() throws JsonProcessingException {
+    // Configured like Spring Boot's auto-configured mapper.
+    mapper = new ObjectMapper().registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    games = Fixtures.games(10_000);
+    gridFields = GameFields.parse(GRID_FIELDS);
+    System.out.printf("%nResponse sizes: full %,d B, grid fields %,d B, summary %,d B%n",
+        full().length, grid().length, summary().length);
+  }
+
+  @Benchmark
+  public byte[] full() throws JsonProcessingException {
+    return mapper.writeValueAsBytes(games);
+  }
+
+  @Benchmark
+  public byte[] grid() throws JsonProcessingException {
+    return mapper.writeValueAsBytes(gridFields.project(games));
+  }
+
+  @Benchmark
+  public byte[] summary() throws JsonProcessingException {
+    return mapper.writeValueAsBytes(games.stream().map(GameSummary::new).toList());
+  }
+}
@@ -0,0 +1,65 @@
+package com.bezkoder.spring.security.mongodb.benchmarks;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.bezkoder.spring.security.mongodb.service.wordhunt.DawgDictionary;
+
+/**
+ * Word lookups in the DAWG against a {@code HashSet<String>} of the same
+ * list: 1,000 real words followed by 1,000 random misses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DictionaryBenchmark {
+
+  private DawgDictionary dawg;
+  private Set<String> hashSet;
+  private String[] probes;
+
+  @Setup
+  public void setUp() {
+    dawg = Fixtures.dictionary();
+    List<String> words = Fixtures.wordList();
+    hashSet = new HashSet<>(words);
+    String[] hits = words.stream().filter(w -> w.hashCode() % 97 == 0).limit(1000).toArray(String[]::new);
+    List<String> misses = Fixtures.randomWords(11L, hits.length);
+    probes = new String[hits.length * 2];
+    for (int i = 0; i < hits.length; i++) {
+      probes[i] = hits[i];
+      probes[hits.length + i] = misses.get(i);
+    }
+  }
+
+  @Benchmark
+  public void dawgContains(Blackhole bh) {
+    for (String w : probes) {
+      bh.consume(dawg.contains(w));
+    }
+  }
+
+  @Benchmark
+  public void hashSetContains(Blackhole bh) {
+    for (String w : probes) {
+      bh.consume(hashSet.contains(w));
+    }
+  }
+}
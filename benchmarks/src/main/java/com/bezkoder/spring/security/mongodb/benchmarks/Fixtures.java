@@ -0,0 +1,121 @@
+package com.bezkoder.spring.security.mongodb.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import com.bezkoder.spring.security.mongodb.domain.store.Game;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.DawgDictionary;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.SolvedBoard;
+
+/** Shared benchmark inputs: the bundled dictionary, deterministic boards and payloads. */
+final class Fixtures {
+  private static final String ALPHABET = "EEEEEEEEEEEEAAAAAAAAAIIIIIIIIIIOOOOOOOOONNNNNNRRRRRRTTTTTLLLLSSSSUUUUDDDDGGGBBCCMMPPFFHHVVWWYYKJXQZ";
+
+  private static DawgDictionary dictionary;
+
+  private Fixtures() {}
+
+  static synchronized DawgDictionary dictionary() {
+    if (dictionary == null) {
+      try (InputStream in = Fixtures.class.getResourceAsStream("/wordhunt/words.txt")) {
+        dictionary = DawgDictionary.load(in);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return dictionary;
+  }
+
+  static List<String> wordList() {
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+        Fixtures.class.getResourceAsStream("/wordhunt/words.txt"), StandardCharsets.UTF_8))) {
+      return reader.lines().map(String::trim).filter(w -> !w.isEmpty()).collect(Collectors.toList());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * A submission as a client would send it: up to half of the words are on
+   * {@code board}, the rest are misses, in mixed case with stray whitespace.
+   */
+  static List<String> payload(SolvedBoard board, int count) {
+    List<String> hits = new ArrayList<>(new TreeSet<>(board.words().keySet()));
+    List<String> words = new ArrayList<>(hits.subList(0, Math.min(count / 2, hits.size())));
+    words.addAll(randomWords(3L, count - words.size()));
+    for (int i = 0; i < words.size(); i += 2) {
+      words.set(i, " " + words.get(i).toLowerCase(Locale.ROOT));
+    }
+    Collections.shuffle(words, new Random(5L));
+    return words;
+  }
+
+  /** A catalog of {@code count} games shaped like the sample data, with realistic text lengths. */
+  static List<Game> games(int count) {
+    Random rand = new Random(17L);
+    String[] categories = { "RPG", "Action", "FPS", "Sports", "Sandbox", "Party", "MOBA", "Multiplayer" };
+    List<String> words = randomWords(19L, 400);
+    List<Game> games = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      String category = categories[rand.nextInt(categories.length)];
+      Game g = new Game(phrase(words, rand, 2 + rand.nextInt(3)) + " " + i, phrase(words, rand, 12 + rand.nextInt(20)),
+          phrase(words, rand, 2) + " Studios", new BigDecimal(rand.nextInt(7000)).movePointLeft(2), category);
+      g.setId(String.format("%024x", i));
+      g.setPublisher(g.getDeveloper());
+      g.setImageUrl("https://cdn.cloudflare.steamstatic.com/steam/apps/" + (10000 + i) + "/header.jpg");
+      g.setRating(3.0 + rand.nextInt(20) / 10.0);
+      g.setReviewCount(rand.nextInt(5000));
+      g.setTags(List.of(category.toLowerCase(Locale.ROOT), "popular", words.get(rand.nextInt(words.size()))));
+      games.add(g);
+    }
+    return games;
+  }
+
+  private static String phrase(List<String> words, Random rand, int n) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < n; i++) {
+      if (i > 0) sb.append(' ');
+      String w = words.get(rand.nextInt(words.size())).toLowerCase(Locale.ROOT);
+      sb.append(i == 0 ? Character.toUpperCase(w.charAt(0)) + w.substring(1) : w);
+    }
+    return sb.toString();
+  }
+
+  static char[][] grid(long seed, int size) {
+    Random rand = new Random(seed);
+    char[][] grid = new char[size][size];
+    for (int r = 0; r < size; r++) {
+      for (int c = 0; c < size; c++) {
+        grid[r][c] = ALPHABET.charAt(rand.nextInt(ALPHABET.length()));
+      }
+    }
+    return grid;
+  }
+
+  /** Dictionary-shaped words that are mostly not on a given board. */
+  static List<String> randomWords(long seed, int count) {
+    Random rand = new Random(seed);
+    List<String> words = new ArrayList<>(count);
+    while (words.size() < count) {
+      StringBuilder sb = new StringBuilder();
+      int len = 3 + rand.nextInt(5);
+      for (int i = 0; i < len; i++) {
+        sb.append(ALPHABET.charAt(rand.nextInt(ALPHABET.length())));
+      }
+      words.add(sb.toString());
+    }
+    return words;
+  }
+}
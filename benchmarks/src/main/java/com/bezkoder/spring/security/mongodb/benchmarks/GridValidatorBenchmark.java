@@ -0,0 +1,73 @@
+package com.bezkoder.spring.security.mongodb.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.bezkoder.spring.security.mongodb.service.wordhunt.BoardSolver;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.GridGeometry;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.GridPathValidator;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.SolvedBoard;
+
+/**
+ * Legacy recursive dfs vs. the flattened, explicit-stack validator. Each
+ * invocation checks the same word batch: every word on the board plus an
+ * equal number of random misses. Run with {@code -prof gc} to confirm the
+ * validator allocates nothing per word.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GridValidatorBenchmark {
+
+  @Param({"4", "6"})
+  public int size;
+
+  private char[][] grid;
+  private char[] cells;
+  private GridGeometry geometry;
+  private GridPathValidator validator;
+  private String[] words;
+
+  @Setup
+  public void setUp() {
+    grid = Fixtures.grid(20240101L, size);
+    cells = GridGeometry.flatten(grid);
+    geometry = GridGeometry.of(size);
+    validator = GridPathValidator.forCurrentThread();
+    SolvedBoard board = new BoardSolver(Fixtures.dictionary()).solve(null, 20240101L, grid);
+    List<String> batch = new ArrayList<>(board.words().keySet());
+    batch.addAll(Fixtures.randomWords(7L, batch.size()));
+    words = batch.toArray(new String[0]);
+  }
+
+  @Benchmark
+  public void legacyDfs(Blackhole bh) {
+    for (String word : words) {
+      bh.consume(LegacyGridSearch.isValidWordOnGrid(word, grid));
+    }
+  }
+
+  @Benchmark
+  public void flatValidator(Blackhole bh) {
+    for (String word : words) {
+      bh.consume(validator.isOnGrid(word, cells, geometry));
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package com.bezkoder.spring.security.mongodb.benchmarks;
+
+/**
+ * The recursive grid search WordHuntService used before the flattened
+ * validator, kept verbatim (including its last-letter bug) as a baseline.
+ */
+final class LegacyGridSearch {
+  private LegacyGridSearch() {}
+
+  static boolean isValidWordOnGrid(String word, char[][] grid) {
+    int n = grid.length;
+    boolean[][] visited = new boolean[n][n];
+    for (int r = 0; r < n; r++) {
+      for (int c = 0; c < n; c++) {
+        if (grid[r][c] == word.charAt(0)) {
+          if (dfs(word, 0, r, c, grid, visited)) return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean dfs(String word, int idx, int r, int c, char[][] grid, boolean[][] visited) {
+    if (idx == word.length()) return true;
+    if (r < 0 || c < 0 || r >= grid.length || c >= grid.length) return false;
+    if (visited[r][c]) return false;
+    if (grid[r][c] != word.charAt(idx)) return false;
+    visited[r][c] = true;
+    // explore 8 directions
+    for (int dr = -1; dr <= 1; dr++) {
+      for (int dc = -1; dc <= 1; dc++) {
+        if (dr == 0 && dc == 0) continue;
+        if (dfs(word, idx + 1, r + dr, c + dc, grid, visited)) {
+          visited[r][c] = false;
+          return true;
+        }
+      }
+    }
+    visited[r][c] = false;
+    return idx + 1 == word.length();
+  }
+}
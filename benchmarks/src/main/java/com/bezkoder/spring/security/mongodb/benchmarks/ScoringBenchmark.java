@@ -0,0 +1,95 @@
+package com.bezkoder.spring.security.mongodb.benchmarks;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.bezkoder.spring.security.mongodb.service.wordhunt.BoardSolver;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.SolvedBoard;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.WordDictionary;
+
+/**
+ * Scoring a 50-word submission: the original per-word dfs plus dictionary
+ * check against a lookup in the pre-solved board. {@code scoreFor} covers the
+ * length-to-points table on its own.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScoringBenchmark {
+
+  @Param({"4", "6"})
+  public int size;
+
+  private WordDictionary dictionary;
+  private SolvedBoard board;
+  private char[][] grid;
+  private List<String> payload;
+  private int[] lengths;
+
+  @Setup
+  public void setUp() {
+    dictionary = Fixtures.dictionary();
+    grid = Fixtures.grid(20240101L, size);
+    board = new BoardSolver(dictionary).solve(null, 20240101L, grid);
+    payload = Fixtures.payload(board, 50);
+    lengths = new int[64];
+    for (int i = 0; i < lengths.length; i++) {
+      lengths[i] = 1 + i % 12;
+    }
+  }
+
+  @Benchmark
+  public int legacyScoring() {
+    int total = 0;
+    for (String w : normalise(payload)) {
+      if (LegacyGridSearch.isValidWordOnGrid(w, grid) && dictionary.contains(w)) {
+        total += BoardSolver.scoreFor(w.length());
+      }
+    }
+    return total;
+  }
+
+  @Benchmark
+  public int solvedBoardScoring() {
+    int total = 0;
+    for (String w : normalise(payload)) {
+      total += board.scoreOf(w);
+    }
+    return total;
+  }
+
+  @Benchmark
+  public void scoreFor(Blackhole bh) {
+    for (int length : lengths) {
+      bh.consume(BoardSolver.scoreFor(length));
+    }
+  }
+
+  private static Set<String> normalise(List<String> words) {
+    Set<String> unique = new HashSet<>();
+    for (String w : words) {
+      String s = w.trim().toUpperCase(Locale.ROOT);
+      if (s.length() >= BoardSolver.MIN_WORD_LENGTH) unique.add(s);
+    }
+    return unique;
+  }
+}
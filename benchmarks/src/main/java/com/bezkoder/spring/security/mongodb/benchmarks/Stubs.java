@@ -0,0 +1,91 @@
+package com.bezkoder.spring.security.mongodb.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+
+import com.bezkoder.spring.security.mongodb.domain.wordhunt.WhDailySeed;
+import com.bezkoder.spring.security.mongodb.repository.WhDailySeedRepository;
+import com.bezkoder.spring.security.mongodb.repository.WhScoreRepository;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoClient;
+
+/**
+ * In-memory stand-ins for the Mongo side of WordHunt, so service benchmarks
+ * measure the request path and not a database. Every query finds nothing and
+ * every write succeeds.
+ */
+final class Stubs {
+  private Stubs() {}
+
+  static WhScoreRepository scoreRepository() {
+    return stub(WhScoreRepository.class);
+  }
+
+  static WhDailySeedRepository seedRepository() {
+    return (WhDailySeedRepository) Proxy.newProxyInstance(Stubs.class.getClassLoader(),
+        new Class<?>[] { WhDailySeedRepository.class }, (proxy, method, args) -> {
+          if (method.getName().equals("findOrCreate")) {
+            return new WhDailySeed((LocalDate) args[0], (Long) args[1]);
+          }
+          return empty(method.getReturnType());
+        });
+  }
+
+  static MongoTemplate mongoTemplate() {
+    return new EmptyMongoTemplate();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T stub(Class<T> type) {
+    return (T) Proxy.newProxyInstance(Stubs.class.getClassLoader(), new Class<?>[] { type },
+        (proxy, method, args) -> empty(method.getReturnType()));
+  }
+
+  private static Object empty(Class<?> type) {
+    if (type == Optional.class) return Optional.empty();
+    if (type == Stream.class) return Stream.empty();
+    if (List.class.isAssignableFrom(type)) return List.of();
+    if (type == boolean.class) return false;
+    if (type == long.class) return 0L;
+    if (type == int.class) return 0;
+    return null;
+  }
+
+  private static final class EmptyMongoTemplate extends MongoTemplate {
+    EmptyMongoTemplate() {
+      super(new SimpleMongoClientDatabaseFactory(stub(MongoClient.class), "benchmarks"));
+    }
+
+    @Override
+    public <O> AggregationResults<O> aggregate(Aggregation aggregation, Class<?> inputType, Class<O> outputType) {
+      return new AggregationResults<>(List.of(), new Document());
+    }
+
+    @Override
+    public BulkOperations bulkOps(BulkMode mode, Class<?> entityType) {
+      return bulkOps();
+    }
+
+    @Override
+    public BulkOperations bulkOps(BulkMode mode, Class<?> entityType, String collectionName) {
+      return bulkOps();
+    }
+
+    private static BulkOperations bulkOps() {
+      return (BulkOperations) Proxy.newProxyInstance(Stubs.class.getClassLoader(),
+          new Class<?>[] { BulkOperations.class },
+          (proxy, method, args) -> method.getName().equals("execute") ? BulkWriteResult.unacknowledged() : proxy);
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package com.bezkoder.spring.security.mongodb.benchmarks;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.bezkoder.spring.security.mongodb.repository.WhScoreRepository;
+import com.bezkoder.spring.security.mongodb.service.WordHuntService;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.BoardSolver;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.DailyBoardCache;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.GridGeometry;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.LeaderboardIndex;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.PlaySessionStore;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.ScoreRollups;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.ScoreStatsIndex;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.ScoreWriteBehind;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.SolvedBoard;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.WordDictionary;
+
+/**
+ * {@link WordHuntService#submit} end to end on the default 4x4 board with a
+ * 50-word payload and stubbed Mongo. Every call is a new player, so each
+ * invocation takes the accept path: claim, histogram update and enqueue.
+ * The service is rebuilt per iteration to keep the leaderboard size bounded.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SubmitBenchmark {
+  private static final LocalDate DATE = LocalDate.of(2024, 1, 1);
+
+  private WordHuntService service;
+  private ScoreWriteBehind writer;
+  private List<String> payload;
+  private int player;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    WordDictionary dictionary = Fixtures.dictionary();
+    WhScoreRepository scores = Stubs.scoreRepository();
+    MongoTemplate mongo = Stubs.mongoTemplate();
+    BoardSolver solver = new BoardSolver(dictionary);
+    DailyBoardCache boards = new DailyBoardCache(Stubs.seedRepository(), solver, 64);
+    LeaderboardIndex leaderboards = new LeaderboardIndex(scores, 7);
+    ScoreStatsIndex stats = new ScoreStatsIndex(mongo, boards, 7);
+    ScoreRollups rollups = new ScoreRollups(mongo, 1);
+    writer = new ScoreWriteBehind(mongo, leaderboards, stats, rollups, 10_000, 500, 20);
+    writer.start();
+    service = new WordHuntService(scores, boards, null, leaderboards, stats, writer, rollups,
+        new PlaySessionStore(30), dictionary);
+
+    SolvedBoard board = boards.get(DATE, GridGeometry.DEFAULT_SIZE);
+    payload = Fixtures.payload(board, 50);
+  }
+
+  @TearDown(Level.Iteration)
+  public void tearDown() {
+    writer.stop();
+  }
+
+  @Benchmark
+  public WordHuntService.SubmitResult submit() {
+    String user = "player-" + player++;
+    return service.submit(DATE, user, user, payload);
+  }
+}
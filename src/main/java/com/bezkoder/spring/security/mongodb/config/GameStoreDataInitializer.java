@@ -10,6 +10,7 @@ import org.springframework.stereotype.Component;
 
 import com.bezkoder.spring.security.mongodb.domain.store.Game;
 import com.bezkoder.spring.security.mongodb.repository.GameRepository;
+import com.bezkoder.spring.security.mongodb.service.store.GameCatalog;
 
 @Component
 public class GameStoreDataInitializer implements CommandLineRunner {
@@ -17,6 +18,9 @@ public class GameStoreDataInitializer implements CommandLineRunner {
   @Autowired
   private GameRepository gameRepository;
 
+  @Autowired
+  private GameCatalog gameCatalog;
+
   @Override
   public void run(String... args) throws Exception {
     // Always initialize games to ensure images are updated
@@ -84,6 +88,7 @@ public class GameStoreDataInitializer implements CommandLineRunner {
     }
 
     gameRepository.saveAll(sampleGames);
+    gameCatalog.refresh();
     System.out.println("Initialized " + sampleGames.size() + " sample games");
   }
 }
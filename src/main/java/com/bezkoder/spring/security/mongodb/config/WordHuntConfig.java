@@ -0,0 +1,38 @@
+package com.bezkoder.spring.security.mongodb.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import com.bezkoder.spring.security.mongodb.service.wordhunt.DawgDictionary;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.WordDictionary;
+
+@Configuration
+@EnableScheduling
+public class WordHuntConfig {
+
+  private static final Logger logger = LoggerFactory.getLogger(WordHuntConfig.class);
+
+  @Bean
+  public WordDictionary wordDictionary(ResourceLoader resourceLoader,
+                                       @Value("${wordhunt.dictionary.location:classpath:wordhunt/words.txt}") String location)
+      throws IOException {
+    Resource resource = resourceLoader.getResource(location);
+    long start = System.nanoTime();
+    WordDictionary dictionary;
+    try (InputStream in = resource.getInputStream()) {
+      dictionary = DawgDictionary.load(in);
+    }
+    long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+    logger.info("Loaded WordHunt dictionary from {} in {} ms: {}", location, elapsedMs, dictionary.footprint());
+    return dictionary;
+  }
+}
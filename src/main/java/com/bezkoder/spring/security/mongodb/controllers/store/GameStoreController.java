@@ -1,12 +1,15 @@
 package com.bezkoder.spring.security.mongodb.controllers.store;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -21,6 +24,15 @@ import com.bezkoder.spring.security.mongodb.domain.store.Purchase;
 import com.bezkoder.spring.security.mongodb.domain.store.Subscription;
 import com.bezkoder.spring.security.mongodb.domain.store.UserProfile;
 import com.bezkoder.spring.security.mongodb.service.GameStoreService;
+import com.bezkoder.spring.security.mongodb.service.store.CursorPage;
+import com.bezkoder.spring.security.mongodb.service.store.GameCatalog;
+import com.bezkoder.spring.security.mongodb.service.store.GameFields;
+import com.bezkoder.spring.security.mongodb.service.store.GameQuery;
+import com.bezkoder.spring.security.mongodb.service.store.GameQueryResult;
+import com.bezkoder.spring.security.mongodb.service.store.GameSummary;
+import com.bezkoder.spring.security.mongodb.service.store.ProfileKeyCache;
+import com.bezkoder.spring.security.mongodb.service.store.StoreCounters;
+import com.bezkoder.spring.security.mongodb.service.store.SubscriptionBilling;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -32,17 +44,23 @@ public class GameStoreController {
 
   // Game endpoints
   @GetMapping("/games")
-  public ResponseEntity<List<Game>> getAllGames() {
+  public ResponseEntity<List<?>> getAllGames(@RequestParam(required = false) String fields,
+                                             @RequestParam(required = false) Boolean owned,
+                                             @RequestParam(required = false) String username) {
     List<Game> games = gameStoreService.getAllGames();
-    return ResponseEntity.ok(games);
+    return gameList(games, fields, owned, username);
   }
 
   @GetMapping("/games/paged")
-  public ResponseEntity<Page<Game>> getGamesPaged(
-      @RequestParam(defaultValue = "0") int page,
-      @RequestParam(defaultValue = "10") int size) {
-    Page<Game> games = gameStoreService.getGames(page, size);
-    return ResponseEntity.ok(games);
+  public ResponseEntity<CursorPage<Game>> getGamesPaged(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "10") int size,
+      @RequestParam(defaultValue = "false") boolean count) {
+    try {
+      return ResponseEntity.ok(gameStoreService.getGames(cursor, size, count));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
   }
 
   @GetMapping("/games/{id}")
@@ -53,23 +71,118 @@ public class GameStoreController {
   }
 
   @GetMapping("/games/category/{category}")
-  public ResponseEntity<List<Game>> getGamesByCategory(@PathVariable String category) {
+  public ResponseEntity<List<?>> getGamesByCategory(@PathVariable String category,
+                                                    @RequestParam(required = false) String fields,
+                                                    @RequestParam(required = false) Boolean owned,
+                                                    @RequestParam(required = false) String username) {
     List<Game> games = gameStoreService.getGamesByCategory(category);
-    return ResponseEntity.ok(games);
+    return gameList(games, fields, owned, username);
+  }
+
+  @GetMapping("/games/developer/{developer}")
+  public ResponseEntity<List<?>> getGamesByDeveloper(@PathVariable String developer,
+                                                     @RequestParam(required = false) String fields,
+                                                     @RequestParam(required = false) Boolean owned,
+                                                     @RequestParam(required = false) String username) {
+    List<Game> games = gameStoreService.getGamesByDeveloper(developer);
+    return gameList(games, fields, owned, username);
   }
 
   @GetMapping("/games/search")
-  public ResponseEntity<List<Game>> searchGames(@RequestParam String q) {
+  public ResponseEntity<List<?>> searchGames(@RequestParam String q,
+                                             @RequestParam(required = false) String fields,
+                                             @RequestParam(required = false) Boolean owned,
+                                             @RequestParam(required = false) String username) {
     List<Game> games = gameStoreService.searchGames(q);
-    return ResponseEntity.ok(games);
+    return gameList(games, fields, owned, username);
+  }
+
+  @GetMapping("/games/suggest")
+  public ResponseEntity<List<GameSuggestion>> suggestGames(
+      @RequestParam String q,
+      @RequestParam(defaultValue = "8") int limit) {
+    List<GameSuggestion> suggestions = gameStoreService.suggestGames(q, limit).stream()
+        .map(GameSuggestion::new)
+        .toList();
+    return ResponseEntity.ok(suggestions);
+  }
+
+  @GetMapping("/games/query")
+  public ResponseEntity<GameQueryResult> queryGames(
+      @RequestParam(required = false) List<String> category,
+      @RequestParam(required = false) List<String> developer,
+      @RequestParam(required = false) List<String> tag,
+      @RequestParam(required = false) BigDecimal minPrice,
+      @RequestParam(required = false) BigDecimal maxPrice,
+      @RequestParam(required = false) Double minRating,
+      @RequestParam(required = false) String q,
+      @RequestParam(required = false) String sort,
+      @RequestParam(defaultValue = "0") int page,
+      @RequestParam(defaultValue = "20") int size,
+      @RequestParam(required = false) Boolean owned,
+      @RequestParam(required = false) String username) {
+    GameQuery query = new GameQuery();
+    query.setCategories(category);
+    query.setDevelopers(developer);
+    query.setTags(tag);
+    query.setMinPrice(minPrice);
+    query.setMaxPrice(maxPrice);
+    query.setMinRating(minRating);
+    query.setText(q);
+    query.setPage(page);
+    query.setSize(size);
+    if (owned != null && username == null) {
+      return ResponseEntity.badRequest().build();
+    }
+    try {
+      query.setOrder(GameQuery.Order.parse(sort));
+      return ResponseEntity.ok(owned == null
+          ? gameStoreService.queryGames(query)
+          : gameStoreService.queryGames(query, username, owned));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
   }
 
   @GetMapping("/games/price-range")
-  public ResponseEntity<List<Game>> getGamesByPriceRange(
+  public ResponseEntity<List<?>> getGamesByPriceRange(
       @RequestParam BigDecimal minPrice,
-      @RequestParam BigDecimal maxPrice) {
+      @RequestParam BigDecimal maxPrice,
+      @RequestParam(required = false) String fields,
+      @RequestParam(required = false) Boolean owned,
+      @RequestParam(required = false) String username) {
     List<Game> games = gameStoreService.getGamesByPriceRange(minPrice, maxPrice);
-    return ResponseEntity.ok(games);
+    return gameList(games, fields, owned, username);
+  }
+
+  /**
+   * Full games by default; {@code fields=summary} for storefront tiles, or a
+   * comma-separated list of properties for a sparse fieldset. With
+   * {@code owned} (which needs {@code username}), only the games that user
+   * owns, or does not own.
+   */
+  private ResponseEntity<List<?>> gameList(List<Game> games, String fields, Boolean owned, String username) {
+    if (owned != null) {
+      if (username == null) {
+        return ResponseEntity.badRequest().build();
+      }
+      try {
+        games = gameStoreService.filterOwned(games, username, owned);
+      } catch (IllegalArgumentException e) {
+        return ResponseEntity.badRequest().build();
+      }
+    }
+    if (fields == null || fields.isBlank()) {
+      return ResponseEntity.ok(games);
+    }
+    if (fields.trim().equals("summary")) {
+      return ResponseEntity.ok(games.stream().map(GameSummary::new).toList());
+    }
+    try {
+      return ResponseEntity.ok(GameFields.parse(fields).project(games));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
   }
 
   // User Profile endpoints
@@ -94,7 +207,12 @@ public class GameStoreController {
   public ResponseEntity<ApiResponse> addToWallet(
       @PathVariable String username,
       @RequestBody AddWalletRequest request) {
-    boolean success = gameStoreService.addToWallet(username, request.getAmount());
+    boolean success;
+    try {
+      success = gameStoreService.addToWallet(username, request.getAmount());
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
+    }
     if (success) {
       return ResponseEntity.ok(new ApiResponse(true, "Wallet updated successfully"));
     } else {
@@ -118,10 +236,42 @@ public class GameStoreController {
     }
   }
 
+  @PostMapping("/checkout")
+  public ResponseEntity<GameStoreService.CheckoutResult> checkout(@RequestBody CheckoutRequest request) {
+    GameStoreService.CheckoutResult result = gameStoreService.checkout(
+        request.getUsername(),
+        request.getGameIds(),
+        request.getPaymentMethod()
+    );
+
+    if (result.isSuccess()) {
+      return ResponseEntity.ok(result);
+    } else {
+      return ResponseEntity.badRequest().body(result);
+    }
+  }
+
+  @GetMapping("/users/{username}/library")
+  public ResponseEntity<List<?>> getUserLibrary(@PathVariable String username,
+                                                @RequestParam(required = false) String fields) {
+    Optional<List<Game>> library = gameStoreService.getLibrary(username);
+    if (library.isEmpty()) {
+      return ResponseEntity.notFound().build();
+    }
+    return gameList(library.get(), fields, null, null);
+  }
+
   @GetMapping("/users/{username}/purchases")
-  public ResponseEntity<List<Purchase>> getUserPurchases(@PathVariable String username) {
-    List<Purchase> purchases = gameStoreService.getUserPurchases(username);
-    return ResponseEntity.ok(purchases);
+  public ResponseEntity<CursorPage<Purchase>> getUserPurchases(
+      @PathVariable String username,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "20") int limit,
+      @RequestParam(defaultValue = "false") boolean count) {
+    try {
+      return ResponseEntity.ok(gameStoreService.getUserPurchases(username, cursor, limit, count));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
   }
 
   // Subscription endpoints
@@ -160,15 +310,27 @@ public class GameStoreController {
 
   // Analytics endpoints
   @GetMapping("/analytics/top-spenders")
-  public ResponseEntity<List<UserProfile>> getTopSpenders(@RequestParam(defaultValue = "10") int limit) {
-    List<UserProfile> topSpenders = gameStoreService.getTopSpenders(limit);
-    return ResponseEntity.ok(topSpenders);
+  public ResponseEntity<CursorPage<UserProfile>> getTopSpenders(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "10") int limit,
+      @RequestParam(defaultValue = "false") boolean count) {
+    try {
+      return ResponseEntity.ok(gameStoreService.getTopSpenders(cursor, limit, count));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
   }
 
   @GetMapping("/analytics/top-buyers")
-  public ResponseEntity<List<UserProfile>> getTopBuyers(@RequestParam(defaultValue = "10") int limit) {
-    List<UserProfile> topBuyers = gameStoreService.getTopBuyers(limit);
-    return ResponseEntity.ok(topBuyers);
+  public ResponseEntity<CursorPage<UserProfile>> getTopBuyers(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "10") int limit,
+      @RequestParam(defaultValue = "false") boolean count) {
+    try {
+      return ResponseEntity.ok(gameStoreService.getTopBuyers(cursor, limit, count));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
   }
 
   @GetMapping("/analytics/stats")
@@ -176,10 +338,58 @@ public class GameStoreController {
     long totalSubscriptions = gameStoreService.getTotalActiveSubscriptions();
     long totalPurchases = gameStoreService.getTotalCompletedPurchases();
     
-    StoreStats stats = new StoreStats(totalSubscriptions, totalPurchases);
+    StoreStats stats = new StoreStats(totalSubscriptions, totalPurchases,
+        gameStoreService.getActiveSubscriptionsByType(), gameStoreService.getPurchasesOn(LocalDate.now()));
     return ResponseEntity.ok(stats);
   }
 
+  @GetMapping("/analytics/games/{id}/purchases")
+  public ResponseEntity<GameSales> getGamePurchases(@PathVariable String id) {
+    return ResponseEntity.ok(new GameSales(id, gameStoreService.getGamePurchaseCount(id)));
+  }
+
+  // Admin endpoints
+  @PostMapping("/admin/catalog/refresh")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<GameCatalog.Stats> refreshCatalog() {
+    return ResponseEntity.ok(gameStoreService.refreshCatalog());
+  }
+
+  @GetMapping("/admin/catalog/stats")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<GameCatalog.Stats> getCatalogStats() {
+    return ResponseEntity.ok(gameStoreService.catalogStats());
+  }
+
+  @GetMapping("/admin/profiles/stats")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<ProfileKeyCache.Stats> getProfileCacheStats() {
+    return ResponseEntity.ok(gameStoreService.profileCacheStats());
+  }
+
+  @PostMapping("/admin/billing/run")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<SubscriptionBilling.Run> runBilling() {
+    SubscriptionBilling.Run run = gameStoreService.runBilling();
+    if (run == null) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+    return ResponseEntity.ok(run);
+  }
+
+  @PostMapping("/admin/counters/reconcile")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<StoreCounters.Stats> reconcileCounters() {
+    return ResponseEntity.ok(gameStoreService.reconcileCounters());
+  }
+
+  @GetMapping("/admin/billing/last-run")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<SubscriptionBilling.Run> getLastBillingRun() {
+    SubscriptionBilling.Run run = gameStoreService.lastBillingRun();
+    return run == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(run);
+  }
+
   // Request/Response DTOs
   public static class CreateUserRequest {
     private String username;
@@ -240,6 +450,19 @@ public class GameStoreController {
     public String getMessage() { return message; }
   }
 
+  public static class CheckoutRequest {
+    private String username;
+    private List<String> gameIds;
+    private String paymentMethod;
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+    public List<String> getGameIds() { return gameIds; }
+    public void setGameIds(List<String> gameIds) { this.gameIds = gameIds; }
+    public String getPaymentMethod() { return paymentMethod; }
+    public void setPaymentMethod(String paymentMethod) { this.paymentMethod = paymentMethod; }
+  }
+
   public static class PurchaseResponse {
     private boolean success;
     private String message;
@@ -272,16 +495,61 @@ public class GameStoreController {
     public Subscription getSubscription() { return subscription; }
   }
 
+  public static class GameSuggestion {
+    private String id;
+    private String title;
+    private String developer;
+    private String category;
+    private String imageUrl;
+    private BigDecimal price;
+
+    public GameSuggestion(Game game) {
+      this.id = game.getId();
+      this.title = game.getTitle();
+      this.developer = game.getDeveloper();
+      this.category = game.getCategory();
+      this.imageUrl = game.getImageUrl();
+      this.price = game.getPrice();
+    }
+
+    public String getId() { return id; }
+    public String getTitle() { return title; }
+    public String getDeveloper() { return developer; }
+    public String getCategory() { return category; }
+    public String getImageUrl() { return imageUrl; }
+    public BigDecimal getPrice() { return price; }
+  }
+
   public static class StoreStats {
     private long totalActiveSubscriptions;
     private long totalCompletedPurchases;
+    private Map<String, Long> activeSubscriptionsByType;
+    private long purchasesToday;
 
-    public StoreStats(long totalActiveSubscriptions, long totalCompletedPurchases) {
+    public StoreStats(long totalActiveSubscriptions, long totalCompletedPurchases,
+                      Map<String, Long> activeSubscriptionsByType, long purchasesToday) {
       this.totalActiveSubscriptions = totalActiveSubscriptions;
       this.totalCompletedPurchases = totalCompletedPurchases;
+      this.activeSubscriptionsByType = activeSubscriptionsByType;
+      this.purchasesToday = purchasesToday;
     }
 
     public long getTotalActiveSubscriptions() { return totalActiveSubscriptions; }
     public long getTotalCompletedPurchases() { return totalCompletedPurchases; }
+    public Map<String, Long> getActiveSubscriptionsByType() { return activeSubscriptionsByType; }
+    public long getPurchasesToday() { return purchasesToday; }
+  }
+
+  public static class GameSales {
+    private String gameId;
+    private long purchases;
+
+    public GameSales(String gameId, long purchases) {
+      this.gameId = gameId;
+      this.purchases = purchases;
+    }
+
+    public String getGameId() { return gameId; }
+    public long getPurchases() { return purchases; }
   }
 }
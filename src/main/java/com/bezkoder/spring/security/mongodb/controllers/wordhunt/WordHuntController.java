@@ -1,26 +1,56 @@
 package com.bezkoder.spring.security.mongodb.controllers.wordhunt;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.bezkoder.spring.security.mongodb.controllers.wordhunt.WordHuntDtos.DailyResponse;
 import com.bezkoder.spring.security.mongodb.controllers.wordhunt.WordHuntDtos.LeaderboardResponse;
 import com.bezkoder.spring.security.mongodb.controllers.wordhunt.WordHuntDtos.MeResponse;
+import com.bezkoder.spring.security.mongodb.controllers.wordhunt.WordHuntDtos.PackedDailyResponse;
 import com.bezkoder.spring.security.mongodb.controllers.wordhunt.WordHuntDtos.ScoreRow;
+import com.bezkoder.spring.security.mongodb.controllers.wordhunt.WordHuntDtos.SessionRequest;
+import com.bezkoder.spring.security.mongodb.controllers.wordhunt.WordHuntDtos.SessionResponse;
+import com.bezkoder.spring.security.mongodb.controllers.wordhunt.WordHuntDtos.StatsResponse;
 import com.bezkoder.spring.security.mongodb.controllers.wordhunt.WordHuntDtos.SubmitRequest;
 import com.bezkoder.spring.security.mongodb.controllers.wordhunt.WordHuntDtos.SubmitResponse;
+import com.bezkoder.spring.security.mongodb.controllers.wordhunt.WordHuntDtos.SyncDay;
+import com.bezkoder.spring.security.mongodb.controllers.wordhunt.WordHuntDtos.SyncDayResult;
+import com.bezkoder.spring.security.mongodb.controllers.wordhunt.WordHuntDtos.SyncRequest;
+import com.bezkoder.spring.security.mongodb.controllers.wordhunt.WordHuntDtos.SyncResponse;
+import com.bezkoder.spring.security.mongodb.controllers.wordhunt.WordHuntDtos.WordRequest;
+import com.bezkoder.spring.security.mongodb.controllers.wordhunt.WordHuntDtos.WordResponse;
 import com.bezkoder.spring.security.mongodb.service.WordHuntService;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.DailyLeaderboard;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.GridGeometry;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.LeaderboardPeriod;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.PlaySession;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.ScoreRollups;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.SolvedBoard;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -29,18 +59,43 @@ public class WordHuntController {
   @Autowired
   private WordHuntService service;
 
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  /**
+   * The board for a day, as {@code rows} (the default: Jackson writes each
+   * {@code char[]} row as a string) or {@code packed} (one string for the
+   * whole grid). The JSON is serialised once per board and format. Boards for
+   * today and earlier never change, so they carry a strong ETag on
+   * {@code (seed, size, format)} and may be cached until the next local
+   * midnight; future boards must be revalidated because their seed can still
+   * be chosen by the pre-generator.
+   */
   @GetMapping("/daily")
-  public ResponseEntity<DailyResponse> daily(@RequestParam(name = "date", required = false)
-                                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
-                                             LocalDate date,
-                                             @RequestParam(name = "size", required = false) Integer size) {
-    LocalDate d = date == null ? LocalDate.now() : date;
-    var res = service.getDaily(d, size);
-    DailyResponse dto = new DailyResponse();
-    dto.seed = res.seed;
-    dto.size = res.size;
-    dto.grid = res.grid;
-    return ResponseEntity.ok(dto);
+  public ResponseEntity<byte[]> daily(@RequestParam(name = "date", required = false)
+                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                                      LocalDate date,
+                                      @RequestParam(name = "size", required = false) Integer size,
+                                      @RequestParam(name = "format", required = false, defaultValue = "rows") String format,
+                                      WebRequest request) {
+    if (!"rows".equals(format) && !"packed".equals(format)) {
+      return ResponseEntity.badRequest().build();
+    }
+    LocalDate today = LocalDate.now();
+    LocalDate d = date == null ? today : date;
+    SolvedBoard board = service.getDaily(d, size);
+    String etag = "\"wh-" + board.seed + "-" + board.size + "-" + format + "\"";
+    if (request.checkNotModified(etag)) {
+      return null;
+    }
+    CacheControl cacheControl = d.isAfter(today)
+        ? CacheControl.noCache()
+        : CacheControl.maxAge(secondsUntilMidnight(), TimeUnit.SECONDS).cachePublic();
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_JSON)
+        .eTag(etag)
+        .cacheControl(cacheControl)
+        .body(board.encoded(format, b -> encode(b, format)));
   }
 
   @PostMapping("/submit")
@@ -50,7 +105,103 @@ public class WordHuntController {
                                                @RequestBody SubmitRequest request) {
     LocalDate d = date == null ? LocalDate.now() : date;
     String username = request.username != null ? request.username.trim() : "guest";
-    var result = service.submit(d, username, username, request.words);
+    WordHuntService.SubmitResult result;
+    try {
+      result = service.submit(d, username, username, request.words);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+    SubmitResponse dto = new SubmitResponse();
+    dto.accepted = result.accepted;
+    dto.message = result.message;
+    dto.score = result.score;
+    dto.wordsFound = result.wordsFound;
+    dto.words = result.words;
+    return ResponseEntity.ok(dto);
+  }
+
+  @PostMapping("/sync")
+  public ResponseEntity<SyncResponse> sync(@RequestBody SyncRequest request) {
+    if (request.days == null) {
+      return ResponseEntity.badRequest().build();
+    }
+    String username = request.username != null ? request.username.trim() : "guest";
+    Map<LocalDate, List<String>> days = new LinkedHashMap<>();
+    for (SyncDay day : request.days) {
+      if (day.date == null || days.containsKey(day.date)) {
+        return ResponseEntity.badRequest().build();
+      }
+      days.put(day.date, day.words);
+    }
+    List<WordHuntService.SyncResult> results;
+    try {
+      results = service.sync(username, username, days);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+    SyncResponse resp = new SyncResponse();
+    resp.results = results.stream().map(r -> {
+      SyncDayResult dto = new SyncDayResult();
+      dto.date = r.date;
+      dto.accepted = r.result.accepted;
+      dto.message = r.result.message;
+      dto.score = r.result.score;
+      dto.wordsFound = r.result.wordsFound;
+      dto.words = r.result.words;
+      return dto;
+    }).collect(Collectors.toList());
+    return ResponseEntity.ok(resp);
+  }
+
+  @PostMapping("/session")
+  public ResponseEntity<SessionResponse> openSession(@RequestParam(name = "date", required = false)
+                                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                                                     LocalDate date,
+                                                     @RequestBody SessionRequest request) {
+    LocalDate d = date == null ? LocalDate.now() : date;
+    String username = request.username != null ? request.username.trim() : "guest";
+    WordHuntService.OpenSessionResult result;
+    try {
+      result = service.openSession(d, username, username);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+    if (result.session == null) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+    PlaySession session = result.session;
+    SessionResponse dto = new SessionResponse();
+    dto.sessionId = session.id;
+    dto.date = session.date;
+    dto.size = session.board.size;
+    dto.grid = session.board.grid();
+    dto.totalWords = session.board.wordCount;
+    dto.maxScore = session.board.maxScore;
+    dto.score = session.score();
+    dto.words = session.words();
+    return ResponseEntity.ok(dto);
+  }
+
+  @PostMapping("/session/{id}/word")
+  public ResponseEntity<WordResponse> word(@PathVariable("id") String id, @RequestBody WordRequest request) {
+    var attempt = service.tryWord(id, request.word);
+    if (attempt == null) {
+      return ResponseEntity.notFound().build();
+    }
+    WordResponse dto = new WordResponse();
+    dto.result = attempt.outcome.name();
+    dto.points = attempt.points;
+    dto.score = attempt.score;
+    dto.wordsFound = attempt.wordsFound;
+    return ResponseEntity.ok(dto);
+  }
+
+  @PostMapping("/session/{id}/commit")
+  public ResponseEntity<SubmitResponse> commit(@PathVariable("id") String id) {
+    var result = service.commitSession(id);
+    if (result == null) {
+      return ResponseEntity.notFound().build();
+    }
     SubmitResponse dto = new SubmitResponse();
     dto.accepted = result.accepted;
     dto.message = result.message;
@@ -64,18 +215,25 @@ public class WordHuntController {
   public ResponseEntity<LeaderboardResponse> leaderboard(@RequestParam(name = "date", required = false)
                                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
                                                          LocalDate date,
-                                                         @RequestParam(name = "limit", required = false, defaultValue = "50") int limit) {
+                                                         @RequestParam(name = "limit", required = false, defaultValue = "50") int limit,
+                                                         @RequestParam(name = "period", required = false) String period) {
     LocalDate d = date == null ? LocalDate.now() : date;
-    var rows = service.leaderboard(d, limit);
+    LeaderboardPeriod p;
+    try {
+      p = LeaderboardPeriod.parse(period);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+    List<DailyLeaderboard.Ranked> rows;
+    try {
+      rows = service.leaderboard(p, d, limit);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
     LeaderboardResponse resp = new LeaderboardResponse();
     resp.date = d;
-    resp.top = rows.stream().map(s -> {
-      ScoreRow r = new ScoreRow();
-      r.username = s.getUsername();
-      r.score = s.getScore();
-      r.wordsFound = s.getWordsFound();
-      return r;
-    }).collect(Collectors.toList());
+    resp.period = p.keyFor(d);
+    resp.top = rows.stream().map(WordHuntController::toRow).collect(Collectors.toList());
     return ResponseEntity.ok(resp);
   }
 
@@ -83,19 +241,109 @@ public class WordHuntController {
   public ResponseEntity<MeResponse> me(@RequestParam(name = "date", required = false)
                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
                                        LocalDate date,
-                                       @RequestParam(name = "username") String username) {
+                                       @RequestParam(name = "username") String username,
+                                       @RequestParam(name = "around", required = false, defaultValue = "0") int around) {
     LocalDate d = date == null ? LocalDate.now() : date;
-    var me = service.me(d, username);
+    WordHuntService.MeResult me;
+    try {
+      me = service.me(d, username, around);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
     MeResponse resp = new MeResponse();
     resp.date = d;
     resp.username = username;
-    if (me != null) {
-      resp.score = me.getScore();
-      resp.wordsFound = me.getWordsFound();
-      resp.words = me.getFoundWords();
+    resp.totalPlayers = me.totalPlayers;
+    if (me.score != null) {
+      resp.score = me.score.getScore();
+      resp.wordsFound = me.score.getWordsFound();
+      resp.words = me.score.getFoundWords();
+    }
+    if (me.rank > 0) {
+      resp.rank = me.rank;
+      resp.around = me.around.stream().map(WordHuntController::toRow).collect(Collectors.toList());
     }
     return ResponseEntity.ok(resp);
   }
-}
 
+  @GetMapping("/stats")
+  public ResponseEntity<StatsResponse> stats(@RequestParam(name = "date", required = false)
+                                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                                             LocalDate date,
+                                             @RequestParam(name = "username", required = false) String username) {
+    LocalDate d = date == null ? LocalDate.now() : date;
+    WordHuntService.StatsResult stats;
+    try {
+      stats = service.stats(d, username);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+    StatsResponse resp = new StatsResponse();
+    resp.date = d;
+    resp.players = stats.players;
+    resp.mean = stats.mean;
+    resp.p50 = stats.p50;
+    resp.p90 = stats.p90;
+    resp.p99 = stats.p99;
+    resp.maxScore = stats.maxScore;
+    resp.username = username;
+    resp.score = stats.score;
+    resp.percentile = stats.percentile;
+    return ResponseEntity.ok(resp);
+  }
+
+  @PostMapping("/rollups/rebuild")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<ScoreRollups.Backfill> rebuildRollups() {
+    try {
+      return ResponseEntity.ok(service.rebuildRollups());
+    } catch (IllegalStateException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+  }
+
+  @GetMapping("/metrics")
+  public ResponseEntity<WordHuntService.Metrics> metrics() {
+    return ResponseEntity.ok(service.metrics());
+  }
+
+  private byte[] encode(SolvedBoard board, String format) {
+    Object dto;
+    if ("packed".equals(format)) {
+      PackedDailyResponse packed = new PackedDailyResponse();
+      packed.seed = board.seed;
+      packed.size = board.size;
+      packed.grid = new String(GridGeometry.flatten(board.grid()));
+      packed.totalWords = board.wordCount;
+      packed.maxScore = board.maxScore;
+      dto = packed;
+    } else {
+      DailyResponse rows = new DailyResponse();
+      rows.seed = board.seed;
+      rows.size = board.size;
+      rows.grid = board.grid();
+      rows.totalWords = board.wordCount;
+      rows.maxScore = board.maxScore;
+      dto = rows;
+    }
+    try {
+      return objectMapper.writeValueAsBytes(dto);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not serialise WordHunt board", e);
+    }
+  }
+
+  private static long secondsUntilMidnight() {
+    ZonedDateTime now = ZonedDateTime.now();
+    return Math.max(1, Duration.between(now, now.toLocalDate().plusDays(1).atStartOfDay(now.getZone())).getSeconds());
+  }
 
+  private static ScoreRow toRow(DailyLeaderboard.Ranked s) {
+    ScoreRow r = new ScoreRow();
+    r.rank = s.rank;
+    r.username = s.username;
+    r.score = s.score;
+    r.wordsFound = s.wordsFound;
+    return r;
+  }
+}
@@ -11,6 +11,17 @@ public class WordHuntDtos {
     public long seed;
     public int size;
     public char[][] grid;
+    public int totalWords;
+    public int maxScore;
+  }
+
+  /** {@link DailyResponse} with the grid as one string, row after row. */
+  public static class PackedDailyResponse {
+    public long seed;
+    public int size;
+    public String grid;
+    public int totalWords;
+    public int maxScore;
   }
 
   public static class SubmitRequest {
@@ -28,6 +39,60 @@ public class WordHuntDtos {
     public List<String> words;
   }
 
+  public static class SyncRequest {
+    @NotNull
+    public String username;
+    @NotNull
+    public List<SyncDay> days;
+  }
+
+  public static class SyncDay {
+    @NotNull
+    public LocalDate date;
+    public List<String> words;
+  }
+
+  public static class SyncDayResult {
+    public LocalDate date;
+    public boolean accepted;
+    public String message;
+    public int score;
+    public int wordsFound;
+    public List<String> words;
+  }
+
+  public static class SyncResponse {
+    public List<SyncDayResult> results;
+  }
+
+  public static class SessionRequest {
+    @NotNull
+    public String username;
+  }
+
+  public static class SessionResponse {
+    public String sessionId;
+    public LocalDate date;
+    public int size;
+    public char[][] grid;
+    public int totalWords;
+    public int maxScore;
+    public int score;
+    public List<String> words;
+  }
+
+  public static class WordRequest {
+    @NotNull
+    public String word;
+  }
+
+  public static class WordResponse {
+    public String result;
+    public int points;
+    public int score;
+    public int wordsFound;
+  }
+
   public static class LeaderboardQuery {
     @NotNull
     public LocalDate date;
@@ -36,6 +101,7 @@ public class WordHuntDtos {
   }
 
   public static class ScoreRow {
+    public int rank;
     public String username;
     public int score;
     public int wordsFound;
@@ -43,6 +109,7 @@ public class WordHuntDtos {
 
   public static class LeaderboardResponse {
     public LocalDate date;
+    public String period;
     public List<ScoreRow> top;
   }
 
@@ -52,7 +119,21 @@ public class WordHuntDtos {
     public Integer score;
     public Integer wordsFound;
     public List<String> words;
+    public Integer rank;
+    public int totalPlayers;
+    public List<ScoreRow> around;
   }
-}
-
 
+  public static class StatsResponse {
+    public LocalDate date;
+    public long players;
+    public double mean;
+    public int p50;
+    public int p90;
+    public int p99;
+    public int maxScore;
+    public String username;
+    public Integer score;
+    public Double percentile;
+  }
+}
@@ -0,0 +1,48 @@
+package com.bezkoder.spring.security.mongodb.domain.store;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Progress of the subscription billing job, one document per job. It holds
+ * the lease that keeps a single instance billing at a time and, for the
+ * current run, the cutoff and the last subscription settled, so a run cut
+ * short resumes where it stopped.
+ */
+@Document(collection = "store_billing_checkpoint")
+public class BillingCheckpoint {
+  @Id
+  private String id;
+  private String owner;
+  private LocalDateTime leaseUntil;
+  private String runId;
+  private LocalDateTime cutoff;
+  private LocalDateTime lastBillingDate;
+  private String lastSubscriptionId;
+  private boolean finished;
+  private long scanned;
+  private long renewed;
+  private long expired;
+  private long failed;
+  private LocalDateTime startedAt;
+  private LocalDateTime updatedAt;
+
+  public BillingCheckpoint() {}
+
+  public String getId() { return id; }
+  public String getOwner() { return owner; }
+  public LocalDateTime getLeaseUntil() { return leaseUntil; }
+  public String getRunId() { return runId; }
+  public LocalDateTime getCutoff() { return cutoff; }
+  public LocalDateTime getLastBillingDate() { return lastBillingDate; }
+  public String getLastSubscriptionId() { return lastSubscriptionId; }
+  public boolean isFinished() { return finished; }
+  public long getScanned() { return scanned; }
+  public long getRenewed() { return renewed; }
+  public long getExpired() { return expired; }
+  public long getFailed() { return failed; }
+  public LocalDateTime getStartedAt() { return startedAt; }
+  public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
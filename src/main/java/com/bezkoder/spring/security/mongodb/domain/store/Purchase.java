@@ -11,7 +11,7 @@ import org.springframework.data.mongodb.core.mapping.Document;
 @Document(collection = "purchases")
 @CompoundIndexes({
   @CompoundIndex(name = "user_game_idx", def = "{ 'userId': 1, 'gameId': 1 }", unique = true),
-  @CompoundIndex(name = "user_date_idx", def = "{ 'userId': 1, 'purchaseDate': -1 }")
+  @CompoundIndex(name = "user_date_id_idx", def = "{ 'userId': 1, 'purchaseDate': -1, '_id': -1 }")
 })
 public class Purchase {
   @Id
@@ -0,0 +1,21 @@
+package com.bezkoder.spring.security.mongodb.domain.store;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/** One materialised store total, keyed by counter name (for example {@code purchases.status.COMPLETED}). */
+@Document(collection = "store_counters")
+public class StoreCounter {
+  @Id
+  private String id;
+  private long value;
+  private LocalDateTime updatedAt;
+
+  public StoreCounter() {}
+
+  public String getId() { return id; }
+  public long getValue() { return value; }
+  public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
@@ -6,12 +6,14 @@ import java.time.LocalDateTime;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "subscriptions")
 @CompoundIndexes({
   @CompoundIndex(name = "user_active_idx", def = "{ 'userId': 1, 'isActive': 1 }"),
-  @CompoundIndex(name = "user_type_idx", def = "{ 'userId': 1, 'subscriptionType': 1 }")
+  @CompoundIndex(name = "user_type_idx", def = "{ 'userId': 1, 'subscriptionType': 1 }"),
+  @CompoundIndex(name = "active_billing_idx", def = "{ 'isActive': 1, 'nextBillingDate': 1, '_id': 1 }")
 })
 public class Subscription {
   @Id
@@ -26,6 +28,11 @@ public class Subscription {
   private boolean isActive;
   private String status; // ACTIVE, CANCELLED, EXPIRED, SUSPENDED
   private String paymentMethod;
+  /** Id of the billing run that has claimed this subscription, while it is being renewed. */
+  @Indexed(sparse = true)
+  private String billingRun;
+  /** Id of the billing run that last renewed this subscription. */
+  private String lastBillingRun;
   private LocalDateTime createdAt;
   private LocalDateTime updatedAt;
 
@@ -81,6 +88,11 @@ public class Subscription {
   public String getPaymentMethod() { return paymentMethod; }
   public void setPaymentMethod(String paymentMethod) { this.paymentMethod = paymentMethod; }
   
+  public String getBillingRun() { return billingRun; }
+  public void setBillingRun(String billingRun) { this.billingRun = billingRun; }
+  
+  public String getLastBillingRun() { return lastBillingRun; }
+  
   public LocalDateTime getCreatedAt() { return createdAt; }
   public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
   
@@ -5,10 +5,18 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 @Document(collection = "user_profiles")
+@CompoundIndexes({
+  @CompoundIndex(name = "spent_id_idx", def = "{ 'totalSpent': -1, '_id': -1 }"),
+  @CompoundIndex(name = "purchased_id_idx", def = "{ 'totalGamesPurchased': -1, '_id': -1 }")
+})
 public class UserProfile {
   @Id
   private String id;
@@ -18,14 +26,19 @@ public class UserProfile {
   
   private String email;
   private String fullName;
+  // Stored as Decimal128 so the wallet can be debited with $inc and compared with $gte.
+  @Field(targetType = FieldType.DECIMAL128)
   private BigDecimal walletBalance;
   private int totalGamesPurchased;
+  @Field(targetType = FieldType.DECIMAL128)
   private BigDecimal totalSpent;
   private String preferredPaymentMethod;
   private List<String> favoriteCategories;
   private LocalDateTime memberSince;
   private LocalDateTime lastLogin;
   private boolean isPremiumMember;
+  /** Ids of the latest renewal charges taken from the wallet, so a resumed billing run does not charge twice. */
+  private List<String> renewalCharges;
   private LocalDateTime createdAt;
   private LocalDateTime updatedAt;
 
@@ -84,6 +97,8 @@ public class UserProfile {
   public boolean isPremiumMember() { return isPremiumMember; }
   public void setPremiumMember(boolean premiumMember) { isPremiumMember = premiumMember; }
   
+  public List<String> getRenewalCharges() { return renewalCharges; }
+  
   public LocalDateTime getCreatedAt() { return createdAt; }
   public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
   
@@ -1,6 +1,7 @@
 package com.bezkoder.spring.security.mongodb.domain.wordhunt;
 
 import java.time.LocalDate;
+import java.util.Map;
 
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.Indexed;
@@ -13,6 +14,8 @@ public class WhDailySeed {
   @Indexed(unique = true)
   private LocalDate date;
   private long seed;
+  /** Quality-checked seeds chosen ahead of time, keyed by grid size. */
+  private Map<String, Long> sizeSeeds;
 
   public WhDailySeed() {}
 
@@ -26,6 +29,14 @@ public class WhDailySeed {
   public void setDate(LocalDate date) { this.date = date; }
   public long getSeed() { return seed; }
   public void setSeed(long seed) { this.seed = seed; }
+  public Map<String, Long> getSizeSeeds() { return sizeSeeds; }
+  public void setSizeSeeds(Map<String, Long> sizeSeeds) { this.sizeSeeds = sizeSeeds; }
+
+  /** Seed for a grid of {@code size}: the pre-generated one if any, else the day's seed. */
+  public long seedFor(int size) {
+    Long chosen = sizeSeeds == null ? null : sizeSeeds.get(String.valueOf(size));
+    return chosen != null ? chosen : seed;
+  }
 }
 
 
@@ -34,6 +34,7 @@ public class WhScore {
   public OffsetDateTime getUpdatedAt() { return updatedAt; }
   public List<String> getFoundWords() { return foundWords; }
 
+  public void setId(String id) { this.id = id; }
   public void setUserId(String userId) { this.userId = userId; }
   public void setUsername(String username) { this.username = username; }
   public void setDate(LocalDate date) { this.date = date; }
@@ -0,0 +1,44 @@
+package com.bezkoder.spring.security.mongodb.domain.wordhunt;
+
+import java.time.OffsetDateTime;
+
+import org.springframework.data.annotation.Id;
+
+/**
+ * A player's running total for one week, month or all time. Stored in
+ * {@code wh_scores_weekly}, {@code wh_scores_monthly} and
+ * {@code wh_scores_alltime}; the id is {@code <period>:<userId>}.
+ */
+public class WhScoreRollup {
+  @Id
+  private String id;
+  private String period;
+  private String userId;
+  private String username;
+  private int score;
+  private int wordsFound;
+  private int games;
+  private OffsetDateTime updatedAt;
+
+  public static String idFor(String period, String userId) {
+    return period + ":" + userId;
+  }
+
+  public String getId() { return id; }
+  public String getPeriod() { return period; }
+  public String getUserId() { return userId; }
+  public String getUsername() { return username; }
+  public int getScore() { return score; }
+  public int getWordsFound() { return wordsFound; }
+  public int getGames() { return games; }
+  public OffsetDateTime getUpdatedAt() { return updatedAt; }
+
+  public void setId(String id) { this.id = id; }
+  public void setPeriod(String period) { this.period = period; }
+  public void setUserId(String userId) { this.userId = userId; }
+  public void setUsername(String username) { this.username = username; }
+  public void setScore(int score) { this.score = score; }
+  public void setWordsFound(int wordsFound) { this.wordsFound = wordsFound; }
+  public void setGames(int games) { this.games = games; }
+  public void setUpdatedAt(OffsetDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
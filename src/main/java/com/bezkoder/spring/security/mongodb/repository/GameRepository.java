@@ -20,9 +20,6 @@ public interface GameRepository extends MongoRepository<Game, String> {
   
   List<Game> findByDeveloperAndIsActiveTrue(String developer);
   
-  @Query("{ 'title': { $regex: ?0, $options: 'i' }, 'isActive': true }")
-  List<Game> findByTitleContainingIgnoreCaseAndIsActiveTrue(String title);
-  
   @Query("{ 'tags': { $in: ?0 }, 'isActive': true }")
   List<Game> findByTagsInAndIsActiveTrue(List<String> tags);
   
@@ -11,14 +11,12 @@ import org.springframework.data.mongodb.repository.Query;
 
 import com.bezkoder.spring.security.mongodb.domain.store.Purchase;
 
-public interface PurchaseRepository extends MongoRepository<Purchase, String> {
+public interface PurchaseRepository extends MongoRepository<Purchase, String>, PurchaseRepositoryCustom {
   
   List<Purchase> findByUserId(String userId);
   
   Page<Purchase> findByUserId(String userId, Pageable pageable);
   
-  List<Purchase> findByUserIdOrderByPurchaseDateDesc(String userId);
-  
   Optional<Purchase> findByUserIdAndGameId(String userId, String gameId);
   
   List<Purchase> findByStatus(String status);
@@ -31,6 +29,8 @@ public interface PurchaseRepository extends MongoRepository<Purchase, String> {
   @Query("{ 'status': 'COMPLETED', 'purchaseDate': { $gte: ?0, $lte: ?1 } }")
   List<Purchase> findCompletedPurchasesBetweenDates(LocalDateTime startDate, LocalDateTime endDate);
   
+  long countByUserId(String userId);
+  
   long countByUserIdAndStatus(String userId, String status);
   
   long countByGameIdAndStatus(String gameId, String status);
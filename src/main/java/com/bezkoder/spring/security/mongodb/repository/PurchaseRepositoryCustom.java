@@ -0,0 +1,24 @@
+package com.bezkoder.spring.security.mongodb.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import com.bezkoder.spring.security.mongodb.domain.store.Purchase;
+
+public interface PurchaseRepositoryCustom {
+  /**
+   * Up to {@code limit} of the user's purchases, newest first, that come
+   * after {@code (purchaseDate, id)} in that order; pass {@code null}s for the
+   * first page. Served by {@code user_date_id_idx} without a skip.
+   */
+  List<Purchase> findPageByUserId(String userId, LocalDateTime purchaseDate, String id, int limit);
+
+  /**
+   * Inserts {@code purchases} in one unordered bulk write. Returns the error
+   * code of every purchase that was not stored, by its index in the list;
+   * 11000 means the user already owns that game ({@code user_game_idx}).
+   * Purchases need their ids assigned beforehand.
+   */
+  Map<Integer, Integer> insertAll(List<Purchase> purchases);
+}
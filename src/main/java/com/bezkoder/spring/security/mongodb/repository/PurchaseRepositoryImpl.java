@@ -0,0 +1,57 @@
+package com.bezkoder.spring.security.mongodb.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.bezkoder.spring.security.mongodb.domain.store.Purchase;
+import com.mongodb.bulk.BulkWriteError;
+
+public class PurchaseRepositoryImpl implements PurchaseRepositoryCustom {
+  private final MongoTemplate mongoTemplate;
+
+  @Autowired
+  public PurchaseRepositoryImpl(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public List<Purchase> findPageByUserId(String userId, LocalDateTime purchaseDate, String id, int limit) {
+    Criteria criteria = where("userId").is(userId);
+    if (purchaseDate != null) {
+      criteria.orOperator(
+          where("purchaseDate").lt(purchaseDate),
+          where("purchaseDate").is(purchaseDate).and("id").lt(id));
+    }
+    Query query = new Query(criteria)
+        .with(Sort.by(Sort.Direction.DESC, "purchaseDate", "id"))
+        .limit(limit);
+    return mongoTemplate.find(query, Purchase.class);
+  }
+
+  @Override
+  public Map<Integer, Integer> insertAll(List<Purchase> purchases) {
+    if (purchases.isEmpty()) return Map.of();
+    try {
+      mongoTemplate.bulkOps(BulkMode.UNORDERED, Purchase.class).insert(purchases).execute();
+      return Map.of();
+    } catch (BulkOperationException e) {
+      Map<Integer, Integer> rejected = new HashMap<>();
+      for (BulkWriteError error : e.getErrors()) {
+        rejected.put(error.getIndex(), error.getCode());
+      }
+      return rejected;
+    }
+  }
+}
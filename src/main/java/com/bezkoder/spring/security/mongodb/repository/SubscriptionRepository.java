@@ -9,7 +9,7 @@ import org.springframework.data.mongodb.repository.Query;
 
 import com.bezkoder.spring.security.mongodb.domain.store.Subscription;
 
-public interface SubscriptionRepository extends MongoRepository<Subscription, String> {
+public interface SubscriptionRepository extends MongoRepository<Subscription, String>, SubscriptionRepositoryCustom {
   
   List<Subscription> findByUserId(String userId);
   
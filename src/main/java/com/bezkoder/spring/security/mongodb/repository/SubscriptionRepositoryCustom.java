@@ -0,0 +1,9 @@
+package com.bezkoder.spring.security.mongodb.repository;
+
+public interface SubscriptionRepositoryCustom {
+  /**
+   * Cancels the subscription with id {@code id} if it is still active,
+   * dropping any billing run's claim on it; {@code false} if it was not.
+   */
+  boolean cancelActive(String id);
+}
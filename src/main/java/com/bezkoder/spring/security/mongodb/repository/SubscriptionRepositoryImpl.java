@@ -0,0 +1,33 @@
+package com.bezkoder.spring.security.mongodb.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.bezkoder.spring.security.mongodb.domain.store.Subscription;
+
+public class SubscriptionRepositoryImpl implements SubscriptionRepositoryCustom {
+  private final MongoTemplate mongoTemplate;
+
+  @Autowired
+  public SubscriptionRepositoryImpl(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public boolean cancelActive(String id) {
+    Query query = new Query(where("id").is(id).and("isActive").is(true));
+    return mongoTemplate.updateFirst(query,
+        new Update()
+            .set("isActive", false)
+            .set("status", "CANCELLED")
+            .set("updatedAt", LocalDateTime.now())
+            .unset("billingRun"),
+        Subscription.class).getModifiedCount() == 1;
+  }
+}
@@ -0,0 +1,60 @@
+package com.bezkoder.spring.security.mongodb.repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+import com.bezkoder.spring.security.mongodb.domain.store.UserProfile;
+
+public interface UserProfileRepositoryCustom {
+  /**
+   * Up to {@code limit} profiles ordered by {@code field} then id, both
+   * descending, that come after {@code (value, id)}; pass {@code null}s for
+   * the first page. {@code field} must have a {@code (field desc, _id desc)}
+   * index.
+   */
+  List<UserProfile> findPageOrderedBy(String field, Object value, String id, int limit);
+
+  /**
+   * Takes {@code total} from the wallet and adds {@code games} and
+   * {@code total} to the purchase totals, in one conditional update that
+   * only matches while the balance covers it. Returns the updated profile,
+   * or {@code null} if the user does not exist or cannot afford it.
+   */
+  UserProfile chargeForGames(String username, BigDecimal total, int games);
+
+  /** Reverses {@link #chargeForGames} for a purchase that could not be recorded. */
+  void refundGames(String userId, BigDecimal total, int games);
+
+  /**
+   * Takes {@code amount} from the wallet and marks the user premium, if the
+   * balance covers it; {@code null} otherwise, as for {@link #chargeForGames}.
+   */
+  UserProfile chargeForSubscription(String username, BigDecimal amount);
+
+  /** Returns {@code amount} to the wallet and clears the premium flag. */
+  void refundSubscription(String userId, BigDecimal amount);
+
+  /** Adds {@code amount} to the wallet; {@code false} if there is no such user. */
+  boolean creditWallet(String username, BigDecimal amount);
+
+  void setPremiumMember(String userId, boolean premium);
+
+  /**
+   * Takes a renewal payment of {@code amount} from the wallet of the user with
+   * id {@code userId}; {@code false} if there is no such user or the balance
+   * does not cover it. The charge is recorded under {@code chargeId} and taken
+   * at most once: charging the same id again returns {@code true} without
+   * touching the wallet.
+   */
+  boolean chargeForRenewal(String userId, BigDecimal amount, String chargeId);
+
+  /**
+   * Gives back the renewal charge recorded under {@code chargeId}, if it was
+   * taken and not refunded yet; {@code false} otherwise.
+   */
+  boolean refundRenewal(String userId, BigDecimal amount, String chargeId);
+
+  /** Clears the premium flag on every listed user in one update. */
+  void clearPremium(Collection<String> userIds);
+}
@@ -0,0 +1,145 @@
+package com.bezkoder.spring.security.mongodb.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.bezkoder.spring.security.mongodb.domain.store.UserProfile;
+
+public class UserProfileRepositoryImpl implements UserProfileRepositoryCustom {
+  /** Renewal charge ids remembered per user; a resumed run only needs the latest ones. */
+  private static final int RENEWAL_CHARGES_KEPT = 20;
+
+  private final MongoTemplate mongoTemplate;
+
+  @Autowired
+  public UserProfileRepositoryImpl(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public List<UserProfile> findPageOrderedBy(String field, Object value, String id, int limit) {
+    Criteria criteria = new Criteria();
+    if (value != null) {
+      criteria.orOperator(
+          where(field).lt(value),
+          where(field).is(value).and("id").lt(id));
+    }
+    Query query = new Query(criteria)
+        .with(Sort.by(Sort.Direction.DESC, field, "id"))
+        .limit(limit);
+    return mongoTemplate.find(query, UserProfile.class);
+  }
+
+  @Override
+  public UserProfile chargeForGames(String username, BigDecimal total, int games) {
+    Update update = new Update()
+        .inc("walletBalance", new Decimal128(total.negate()))
+        .inc("totalSpent", new Decimal128(total))
+        .inc("totalGamesPurchased", games)
+        .set("updatedAt", LocalDateTime.now());
+    return charge(username, total, update);
+  }
+
+  @Override
+  public void refundGames(String userId, BigDecimal total, int games) {
+    mongoTemplate.updateFirst(new Query(where("id").is(userId)),
+        new Update()
+            .inc("walletBalance", new Decimal128(total))
+            .inc("totalSpent", new Decimal128(total.negate()))
+            .inc("totalGamesPurchased", -games)
+            .set("updatedAt", LocalDateTime.now()),
+        UserProfile.class);
+  }
+
+  @Override
+  public UserProfile chargeForSubscription(String username, BigDecimal amount) {
+    Update update = new Update()
+        .inc("walletBalance", new Decimal128(amount.negate()))
+        .set("isPremiumMember", true)
+        .set("updatedAt", LocalDateTime.now());
+    return charge(username, amount, update);
+  }
+
+  @Override
+  public void refundSubscription(String userId, BigDecimal amount) {
+    mongoTemplate.updateFirst(new Query(where("id").is(userId)),
+        new Update()
+            .inc("walletBalance", new Decimal128(amount))
+            .set("isPremiumMember", false)
+            .set("updatedAt", LocalDateTime.now()),
+        UserProfile.class);
+  }
+
+  @Override
+  public boolean creditWallet(String username, BigDecimal amount) {
+    return mongoTemplate.updateFirst(new Query(where("username").is(username)),
+        new Update()
+            .inc("walletBalance", new Decimal128(amount))
+            .set("updatedAt", LocalDateTime.now()),
+        UserProfile.class).getMatchedCount() > 0;
+  }
+
+  @Override
+  public void setPremiumMember(String userId, boolean premium) {
+    mongoTemplate.updateFirst(new Query(where("id").is(userId)),
+        new Update()
+            .set("isPremiumMember", premium)
+            .set("updatedAt", LocalDateTime.now()),
+        UserProfile.class);
+  }
+
+  @Override
+  public boolean chargeForRenewal(String userId, BigDecimal amount, String chargeId) {
+    Query query = new Query(where("id").is(userId).and("walletBalance").gte(new Decimal128(amount))
+        .and("renewalCharges").ne(chargeId));
+    Update update = new Update()
+        .inc("walletBalance", new Decimal128(amount.negate()))
+        .set("updatedAt", LocalDateTime.now());
+    update.push("renewalCharges").slice(-RENEWAL_CHARGES_KEPT).each(chargeId);
+    if (mongoTemplate.updateFirst(query, update, UserProfile.class).getModifiedCount() > 0) {
+      return true;
+    }
+    return mongoTemplate.exists(new Query(where("id").is(userId).and("renewalCharges").is(chargeId)),
+        UserProfile.class);
+  }
+
+  @Override
+  public boolean refundRenewal(String userId, BigDecimal amount, String chargeId) {
+    Query query = new Query(where("id").is(userId).and("renewalCharges").is(chargeId));
+    return mongoTemplate.updateFirst(query,
+        new Update()
+            .inc("walletBalance", new Decimal128(amount))
+            .pull("renewalCharges", chargeId)
+            .set("updatedAt", LocalDateTime.now()),
+        UserProfile.class).getModifiedCount() > 0;
+  }
+
+  @Override
+  public void clearPremium(Collection<String> userIds) {
+    mongoTemplate.updateMulti(new Query(where("id").in(userIds)),
+        new Update()
+            .set("isPremiumMember", false)
+            .set("updatedAt", LocalDateTime.now()),
+        UserProfile.class);
+  }
+
+  /** Applies {@code update} if the user's balance is at least {@code amount}, returning the new document. */
+  private UserProfile charge(String username, BigDecimal amount, Update update) {
+    Query query = new Query(where("username").is(username).and("walletBalance").gte(new Decimal128(amount)));
+    return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+        UserProfile.class);
+  }
+}
@@ -7,7 +7,7 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 
 import com.bezkoder.spring.security.mongodb.domain.wordhunt.WhDailySeed;
 
-public interface WhDailySeedRepository extends MongoRepository<WhDailySeed, String> {
+public interface WhDailySeedRepository extends MongoRepository<WhDailySeed, String>, WhDailySeedRepositoryCustom {
   Optional<WhDailySeed> findByDate(LocalDate date);
 }
 
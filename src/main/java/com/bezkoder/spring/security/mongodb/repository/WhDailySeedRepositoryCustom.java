@@ -0,0 +1,21 @@
+package com.bezkoder.spring.security.mongodb.repository;
+
+import java.time.LocalDate;
+
+import com.bezkoder.spring.security.mongodb.domain.wordhunt.WhDailySeed;
+
+public interface WhDailySeedRepositoryCustom {
+  /**
+   * Returns the seed document for {@code date}, inserting one with
+   * {@code seed} if none exists. Safe to call concurrently for the same date.
+   */
+  WhDailySeed findOrCreate(LocalDate date, long seed);
+
+  /**
+   * Records {@code sizeSeed} as the seed for {@code size} on {@code date}
+   * unless one is already set, creating the document with {@code seed} if
+   * needed. Returns whether it was recorded; it never is once {@code date}
+   * is today or earlier.
+   */
+  boolean setSizeSeedIfAbsent(LocalDate date, long seed, int size, long sizeSeed);
+}
@@ -0,0 +1,54 @@
+package com.bezkoder.spring.security.mongodb.repository;
+
+import java.time.LocalDate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.bezkoder.spring.security.mongodb.domain.wordhunt.WhDailySeed;
+import com.mongodb.client.result.UpdateResult;
+
+public class WhDailySeedRepositoryImpl implements WhDailySeedRepositoryCustom {
+  private final MongoTemplate mongoTemplate;
+
+  @Autowired
+  public WhDailySeedRepositoryImpl(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public WhDailySeed findOrCreate(LocalDate date, long seed) {
+    Query query = Query.query(Criteria.where("date").is(date));
+    Update update = new Update().setOnInsert("seed", seed);
+    FindAndModifyOptions options = FindAndModifyOptions.options().upsert(true).returnNew(true);
+    try {
+      return mongoTemplate.findAndModify(query, update, options, WhDailySeed.class);
+    } catch (DuplicateKeyException e) {
+      // Two upserts raced past the unique date index; the other one won.
+      return mongoTemplate.findOne(query, WhDailySeed.class);
+    }
+  }
+
+  @Override
+  public boolean setSizeSeedIfAbsent(LocalDate date, long seed, int size, long sizeSeed) {
+    if (!date.isAfter(LocalDate.now())) {
+      // The day has started: its boards may already be served and must not move.
+      return false;
+    }
+    String field = "sizeSeeds." + size;
+    Query query = Query.query(Criteria.where("date").is(date).and(field).exists(false));
+    Update update = new Update().setOnInsert("seed", seed).set(field, sizeSeed);
+    try {
+      UpdateResult result = mongoTemplate.upsert(query, update, WhDailySeed.class);
+      return result.getModifiedCount() > 0 || result.getUpsertedId() != null;
+    } catch (DuplicateKeyException e) {
+      // The document exists and already has a seed for this size.
+      return false;
+    }
+  }
+}
@@ -1,17 +1,24 @@
 package com.bezkoder.spring.security.mongodb.repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
 import com.bezkoder.spring.security.mongodb.domain.wordhunt.WhScore;
 
-public interface WhScoreRepository extends MongoRepository<WhScore, String> {
+public interface WhScoreRepository extends MongoRepository<WhScore, String>, WhScoreRepositoryCustom {
   Optional<WhScore> findByUserIdAndDate(String userId, LocalDate date);
   List<WhScore> findByDateOrderByScoreDesc(LocalDate date, Pageable pageable);
+  List<WhScore> findByUserIdAndDateIn(String userId, Collection<LocalDate> dates);
+
+  @Query(value = "{ 'date': ?0 }", fields = "{ 'userId': 1, 'username': 1, 'score': 1, 'wordsFound': 1 }", sort = "{ 'score': -1 }")
+  Stream<WhScore> streamRankingByDate(LocalDate date);
 }
 
 
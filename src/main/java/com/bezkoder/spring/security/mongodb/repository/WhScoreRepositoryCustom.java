@@ -0,0 +1,14 @@
+package com.bezkoder.spring.security.mongodb.repository;
+
+import java.util.List;
+
+import com.bezkoder.spring.security.mongodb.domain.wordhunt.WhScore;
+
+public interface WhScoreRepositoryCustom {
+  /**
+   * Inserts {@code scores} in one unordered bulk write and returns the ones
+   * that were stored. Scores rejected by {@code user_date_idx} (the player
+   * already has that day) are left out; any other error is thrown.
+   */
+  List<WhScore> insertNew(List<WhScore> scores);
+}
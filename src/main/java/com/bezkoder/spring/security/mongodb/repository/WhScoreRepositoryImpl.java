@@ -0,0 +1,43 @@
+package com.bezkoder.spring.security.mongodb.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.bezkoder.spring.security.mongodb.domain.wordhunt.WhScore;
+import com.mongodb.bulk.BulkWriteError;
+
+public class WhScoreRepositoryImpl implements WhScoreRepositoryCustom {
+  private static final int DUPLICATE_KEY = 11000;
+
+  private final MongoTemplate mongoTemplate;
+
+  @Autowired
+  public WhScoreRepositoryImpl(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public List<WhScore> insertNew(List<WhScore> scores) {
+    if (scores.isEmpty()) return List.of();
+    try {
+      mongoTemplate.bulkOps(BulkMode.UNORDERED, WhScore.class).insert(scores).execute();
+      return scores;
+    } catch (BulkOperationException e) {
+      boolean[] duplicate = new boolean[scores.size()];
+      for (BulkWriteError error : e.getErrors()) {
+        if (error.getCode() != DUPLICATE_KEY) throw e;
+        duplicate[error.getIndex()] = true;
+      }
+      List<WhScore> inserted = new ArrayList<>();
+      for (int i = 0; i < duplicate.length; i++) {
+        if (!duplicate[i]) inserted.add(scores.get(i));
+      }
+      return inserted;
+    }
+  }
+}
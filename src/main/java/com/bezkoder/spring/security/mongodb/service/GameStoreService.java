@@ -1,14 +1,19 @@
 package com.bezkoder.spring.security.mongodb.service;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
 import com.bezkoder.spring.security.mongodb.domain.store.Game;
@@ -19,129 +24,330 @@ import com.bezkoder.spring.security.mongodb.repository.GameRepository;
 import com.bezkoder.spring.security.mongodb.repository.PurchaseRepository;
 import com.bezkoder.spring.security.mongodb.repository.SubscriptionRepository;
 import com.bezkoder.spring.security.mongodb.repository.UserProfileRepository;
+import com.bezkoder.spring.security.mongodb.service.store.CursorPage;
+import com.bezkoder.spring.security.mongodb.service.store.GameCatalog;
+import com.bezkoder.spring.security.mongodb.service.store.GameQuery;
+import com.bezkoder.spring.security.mongodb.service.store.GameQueryResult;
+import com.bezkoder.spring.security.mongodb.service.store.OwnershipIndex;
+import com.bezkoder.spring.security.mongodb.service.store.PageCursor;
+import com.bezkoder.spring.security.mongodb.service.store.ProfileKeyCache;
+import com.bezkoder.spring.security.mongodb.service.store.StoreCounters;
+import com.bezkoder.spring.security.mongodb.service.store.SubscriptionBilling;
 
 @Service
 public class GameStoreService {
+  private static final int MAX_SUGGESTIONS = 20;
+  private static final int MAX_PAGE_SIZE = 100;
+  private static final int DUPLICATE_KEY = 11000;
   
   private final GameRepository gameRepository;
   private final PurchaseRepository purchaseRepository;
   private final SubscriptionRepository subscriptionRepository;
   private final UserProfileRepository userProfileRepository;
+  private final GameCatalog catalog;
+  private final OwnershipIndex ownership;
+  private final ProfileKeyCache profiles;
+  private final SubscriptionBilling billing;
+  private final StoreCounters counters;
 
   @Autowired
   public GameStoreService(GameRepository gameRepository, 
                          PurchaseRepository purchaseRepository,
                          SubscriptionRepository subscriptionRepository,
-                         UserProfileRepository userProfileRepository) {
+                         UserProfileRepository userProfileRepository,
+                         GameCatalog catalog,
+                         OwnershipIndex ownership,
+                         ProfileKeyCache profiles,
+                         SubscriptionBilling billing,
+                         StoreCounters counters) {
     this.gameRepository = gameRepository;
     this.purchaseRepository = purchaseRepository;
     this.subscriptionRepository = subscriptionRepository;
     this.userProfileRepository = userProfileRepository;
+    this.catalog = catalog;
+    this.ownership = ownership;
+    this.profiles = profiles;
+    this.billing = billing;
+    this.counters = counters;
   }
 
   // Game Management
   public List<Game> getAllGames() {
-    return gameRepository.findByIsActiveTrue();
+    return catalog.activeGames();
   }
 
-  public Page<Game> getGames(int page, int size) {
-    Pageable pageable = PageRequest.of(page, size);
-    return gameRepository.findByIsActiveTrue(pageable);
+  /** Active games in id order, {@code size} at a time. */
+  public CursorPage<Game> getGames(String cursor, int size, boolean count) {
+    String afterId = cursor == null ? null : PageCursor.decode(cursor, 1)[0];
+    List<Game> games = catalog.page(afterId, clamp(size) + 1);
+    return page(games, clamp(size), g -> PageCursor.encode(g.getId()),
+        count ? (long) catalog.activeGames().size() : null);
   }
 
   public Optional<Game> getGameById(String id) {
-    return gameRepository.findById(id);
+    return catalog.byId(id);
   }
 
   public List<Game> getGamesByCategory(String category) {
-    return gameRepository.findByCategoryAndIsActiveTrue(category);
+    return catalog.byCategory(category);
+  }
+
+  public List<Game> getGamesByDeveloper(String developer) {
+    return catalog.byDeveloper(developer);
   }
 
   public List<Game> searchGames(String query) {
-    return gameRepository.findByTitleContainingIgnoreCaseAndIsActiveTrue(query);
+    return catalog.search(query, Integer.MAX_VALUE);
+  }
+
+  public List<Game> suggestGames(String query, int limit) {
+    return catalog.search(query, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
   }
 
   public List<Game> getGamesByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
-    return gameRepository.findByPriceBetweenAndIsActiveTrue(minPrice, maxPrice);
+    return catalog.byPriceRange(minPrice, maxPrice);
+  }
+
+  public GameQueryResult queryGames(GameQuery query) {
+    return catalog.query(query);
+  }
+
+  /**
+   * {@link #queryGames(GameQuery)} keeping only the games {@code username}
+   * owns, or only those they do not own if {@code owned} is {@code false}.
+   */
+  public GameQueryResult queryGames(GameQuery query, String username, boolean owned) {
+    return catalog.query(query, library(username), owned);
+  }
+
+  /**
+   * The games in {@code games} that {@code username} owns, or does not own
+   * if {@code owned} is {@code false}; answered from the ownership index.
+   *
+   * @throws IllegalArgumentException if there is no such user
+   */
+  public List<Game> filterOwned(List<Game> games, String username, boolean owned) {
+    BitSet library = library(username);
+    return games.stream()
+        .filter(g -> library.get(catalog.ordinal(g.getId())) == owned)
+        .toList();
+  }
+
+  /**
+   * Every game the user owns, including ones no longer listed, or empty if
+   * there is no such user.
+   */
+  public Optional<List<Game>> getLibrary(String username) {
+    Optional<ProfileKeyCache.ProfileKey> userOpt = profiles.get(username);
+    if (userOpt.isEmpty()) {
+      return Optional.empty();
+    }
+    BitSet library = ownership.owned(userOpt.get().getId());
+    List<String> ids = library.stream().mapToObj(catalog::gameId).toList();
+    return Optional.of(List.copyOf(catalog.byIds(ids).values()));
   }
 
   public Game createGame(Game game) {
-    return gameRepository.save(game);
+    Game saved = gameRepository.save(game);
+    catalog.onSaved(saved);
+    return saved;
+  }
+
+  public GameCatalog.Stats refreshCatalog() {
+    return catalog.refresh();
+  }
+
+  public GameCatalog.Stats catalogStats() {
+    return catalog.stats();
+  }
+
+  public ProfileKeyCache.Stats profileCacheStats() {
+    return profiles.stats();
   }
 
   // User Profile Management
   public UserProfile createUserProfile(String username, String email, String fullName) {
-    UserProfile profile = new UserProfile(username, email, fullName);
-    return userProfileRepository.save(profile);
+    UserProfile profile = userProfileRepository.save(new UserProfile(username, email, fullName));
+    profiles.put(profile);
+    return profile;
   }
 
   public Optional<UserProfile> getUserProfile(String username) {
-    return userProfileRepository.findByUsername(username);
+    Optional<UserProfile> profile = userProfileRepository.findByUsername(username);
+    profile.ifPresent(profiles::put);
+    return profile;
   }
 
   public UserProfile updateUserProfile(UserProfile profile) {
     profile.setUpdatedAt(LocalDateTime.now());
-    return userProfileRepository.save(profile);
+    profiles.invalidate(profile);
+    UserProfile saved = userProfileRepository.save(profile);
+    profiles.put(saved);
+    return saved;
   }
 
   // Purchase Management
+  /**
+   * Buys one game: price and title come from the catalog, the wallet is
+   * debited by a single conditional update, and the unique
+   * {@code user_game_idx} rejects a second copy, in which case the debit is
+   * refunded. Two round trips when it succeeds.
+   */
   public PurchaseResult purchaseGame(String username, String gameId, String paymentMethod) {
-    Optional<UserProfile> userOpt = userProfileRepository.findByUsername(username);
-    if (userOpt.isEmpty()) {
-      return PurchaseResult.error("User not found");
-    }
-
-    Optional<Game> gameOpt = gameRepository.findById(gameId);
+    Optional<Game> gameOpt = catalog.byId(gameId);
     if (gameOpt.isEmpty()) {
       return PurchaseResult.error("Game not found");
     }
-
-    UserProfile user = userOpt.get();
     Game game = gameOpt.get();
 
-    // Check if user already owns the game
-    Optional<Purchase> existingPurchase = purchaseRepository.findByUserIdAndGameId(user.getId(), gameId);
-    if (existingPurchase.isPresent()) {
-      return PurchaseResult.error("Game already purchased");
-    }
-
-    // Check if user has sufficient wallet balance
-    if (user.getWalletBalance().compareTo(game.getPrice()) < 0) {
-      return PurchaseResult.error("Insufficient wallet balance");
+    UserProfile user = userProfileRepository.chargeForGames(username, game.getPrice(), 1);
+    if (user == null) {
+      return PurchaseResult.error(profiles.get(username).isPresent()
+          ? "Insufficient wallet balance" : "User not found");
     }
+    profiles.put(user);
 
-    // Create purchase record
     Purchase purchase = new Purchase(user.getId(), username, gameId, game.getTitle(), game.getPrice());
     purchase.setPaymentMethod(paymentMethod);
     purchase.setStatus("COMPLETED");
-    purchase = purchaseRepository.save(purchase);
-
-    // Update user profile
-    user.setWalletBalance(user.getWalletBalance().subtract(game.getPrice()));
-    user.setTotalGamesPurchased(user.getTotalGamesPurchased() + 1);
-    user.setTotalSpent(user.getTotalSpent().add(game.getPrice()));
-    user.setUpdatedAt(LocalDateTime.now());
-    userProfileRepository.save(user);
-
+    try {
+      purchase = purchaseRepository.insert(purchase);
+    } catch (DuplicateKeyException e) {
+      userProfileRepository.refundGames(user.getId(), game.getPrice(), 1);
+      return PurchaseResult.error("Game already purchased");
+    } catch (RuntimeException e) {
+      userProfileRepository.refundGames(user.getId(), game.getPrice(), 1);
+      throw e;
+    }
+    ownership.onPurchased(user.getId(), List.of(gameId));
+    counters.purchased(purchase);
     return PurchaseResult.success(purchase);
   }
 
-  public List<Purchase> getUserPurchases(String username) {
-    Optional<UserProfile> userOpt = userProfileRepository.findByUsername(username);
+
+  /** The user's purchases, newest first, {@code limit} at a time. */
+  public CursorPage<Purchase> getUserPurchases(String username, String cursor, int limit, boolean count) {
+    LocalDateTime afterDate = null;
+    String afterId = null;
+    if (cursor != null) {
+      String[] key = PageCursor.decode(cursor, 2);
+      try {
+        afterDate = LocalDateTime.parse(key[0]);
+      } catch (DateTimeParseException e) {
+        throw new IllegalArgumentException("Malformed cursor", e);
+      }
+      afterId = key[1];
+    }
+    Optional<ProfileKeyCache.ProfileKey> userOpt = profiles.get(username);
     if (userOpt.isEmpty()) {
-      return List.of();
+      return new CursorPage<>(List.of(), null, count ? 0L : null);
     }
-    return purchaseRepository.findByUserIdOrderByPurchaseDateDesc(userOpt.get().getId());
+    String userId = userOpt.get().getId();
+    List<Purchase> purchases = purchaseRepository.findPageByUserId(userId, afterDate, afterId, clamp(limit) + 1);
+    return page(purchases, clamp(limit), p -> PageCursor.encode(p.getPurchaseDate().toString(), p.getId()),
+        count ? purchaseRepository.countByUserId(userId) : null);
+  }
+
+  /**
+   * Buys every game in {@code gameIds} at once: the games are priced from
+   * the catalog, the wallet is charged once for the total (which also bumps
+   * the purchase totals with one {@code $inc}), and all purchases go in one
+   * unordered bulk insert. Items already owned or not stored are refunded
+   * together afterwards.
+   */
+  public CheckoutResult checkout(String username, List<String> gameIds, String paymentMethod) {
+    if (gameIds == null || gameIds.isEmpty()) {
+      return CheckoutResult.error("Cart is empty");
+    }
+    List<String> ids = gameIds.stream().distinct().toList();
+    Map<String, Game> games = catalog.byIds(ids);
+
+    List<CheckoutItem> items = new ArrayList<>(ids.size());
+    List<Game> buying = new ArrayList<>();
+    BigDecimal total = BigDecimal.ZERO;
+    for (String id : ids) {
+      Game game = games.get(id);
+      if (game == null) {
+        items.add(new CheckoutItem(id, null, null, CheckoutItem.NOT_FOUND, null));
+      } else {
+        buying.add(game);
+        total = total.add(game.getPrice());
+      }
+    }
+    if (buying.isEmpty()) {
+      return CheckoutResult.error("No games found", items);
+    }
+
+    UserProfile user = userProfileRepository.chargeForGames(username, total, buying.size());
+    if (user == null) {
+      return CheckoutResult.error(profiles.get(username).isPresent()
+          ? "Insufficient wallet balance" : "User not found", items);
+    }
+    profiles.put(user);
+
+    List<Purchase> purchases = new ArrayList<>(buying.size());
+    for (Game game : buying) {
+      Purchase purchase = new Purchase(user.getId(), username, game.getId(), game.getTitle(), game.getPrice());
+      purchase.setId(new ObjectId().toHexString());
+      purchase.setPaymentMethod(paymentMethod);
+      purchase.setStatus("COMPLETED");
+      purchases.add(purchase);
+    }
+    Map<Integer, Integer> rejected;
+    try {
+      rejected = purchaseRepository.insertAll(purchases);
+    } catch (RuntimeException e) {
+      userProfileRepository.refundGames(user.getId(), total, buying.size());
+      throw e;
+    }
+
+    for (int i = 0; i < purchases.size(); i++) {
+      Purchase purchase = purchases.get(i);
+      String status = itemStatus(rejected.get(i));
+      if (CheckoutItem.PURCHASED.equals(status)) {
+        counters.purchased(purchase);
+      }
+      items.add(new CheckoutItem(purchase.getGameId(), purchase.getGameTitle(), purchase.getPrice(), status,
+          CheckoutItem.PURCHASED.equals(status) ? purchase : null));
+    }
+    BigDecimal refund = refundFor(purchases, rejected);
+    ownership.onPurchased(user.getId(), items.stream()
+        .filter(item -> CheckoutItem.PURCHASED.equals(item.getStatus()))
+        .map(CheckoutItem::getGameId)
+        .toList());
+    if (!rejected.isEmpty()) {
+      userProfileRepository.refundGames(user.getId(), refund, rejected.size());
+    }
+    BigDecimal charged = total.subtract(refund);
+    if (rejected.size() == purchases.size()) {
+      return CheckoutResult.error("No games purchased", items);
+    }
+    return CheckoutResult.success(items, charged, user.getWalletBalance().add(refund));
+  }
+
+  /** Checkout status of a purchase given its bulk insert error code, {@code null} if it was stored. */
+  static String itemStatus(Integer code) {
+    if (code == null) return CheckoutItem.PURCHASED;
+    return code == DUPLICATE_KEY ? CheckoutItem.ALREADY_OWNED : CheckoutItem.FAILED;
+  }
+
+  /** What the purchases {@code insertAll} rejected cost, keyed by their index in {@code purchases}. */
+  static BigDecimal refundFor(List<Purchase> purchases, Map<Integer, Integer> rejected) {
+    BigDecimal refund = BigDecimal.ZERO;
+    for (Integer index : rejected.keySet()) {
+      refund = refund.add(purchases.get(index).getPrice());
+    }
+    return refund;
   }
 
   // Subscription Management
   public SubscriptionResult createSubscription(String username, String subscriptionType, String paymentMethod) {
-    Optional<UserProfile> userOpt = userProfileRepository.findByUsername(username);
+    Optional<ProfileKeyCache.ProfileKey> userOpt = profiles.get(username);
     if (userOpt.isEmpty()) {
       return SubscriptionResult.error("User not found");
     }
 
-    UserProfile user = userOpt.get();
+    ProfileKeyCache.ProfileKey user = userOpt.get();
 
     // Check if user already has an active subscription
     Optional<Subscription> existingSubscription = subscriptionRepository.findByUserIdAndIsActiveTrue(user.getId());
@@ -154,27 +360,31 @@ public class GameStoreService {
       return SubscriptionResult.error("Invalid subscription type");
     }
 
-    // Check wallet balance
-    if (user.getWalletBalance().compareTo(monthlyPrice) < 0) {
+    // Debit the wallet and mark the user premium in one conditional update
+    UserProfile charged = userProfileRepository.chargeForSubscription(username, monthlyPrice);
+    if (charged == null) {
       return SubscriptionResult.error("Insufficient wallet balance");
     }
+    profiles.put(charged);
 
     // Create subscription
     Subscription subscription = new Subscription(user.getId(), username, subscriptionType, monthlyPrice);
     subscription.setPaymentMethod(paymentMethod);
-    subscription = subscriptionRepository.save(subscription);
-
-    // Update user profile
-    user.setWalletBalance(user.getWalletBalance().subtract(monthlyPrice));
-    user.setPremiumMember(true);
-    user.setUpdatedAt(LocalDateTime.now());
-    userProfileRepository.save(user);
+    try {
+      subscription = subscriptionRepository.save(subscription);
+    } catch (RuntimeException e) {
+      userProfileRepository.refundSubscription(user.getId(), monthlyPrice);
+      profiles.invalidate(username);
+      throw e;
+    }
+    counters.subscribed(subscription);
 
     return SubscriptionResult.success(subscription);
   }
 
+
   public Optional<Subscription> getUserSubscription(String username) {
-    Optional<UserProfile> userOpt = userProfileRepository.findByUsername(username);
+    Optional<ProfileKeyCache.ProfileKey> userOpt = profiles.get(username);
     if (userOpt.isEmpty()) {
       return Optional.empty();
     }
@@ -182,7 +392,7 @@ public class GameStoreService {
   }
 
   public SubscriptionResult cancelSubscription(String username) {
-    Optional<UserProfile> userOpt = userProfileRepository.findByUsername(username);
+    Optional<ProfileKeyCache.ProfileKey> userOpt = profiles.get(username);
     if (userOpt.isEmpty()) {
       return SubscriptionResult.error("User not found");
     }
@@ -192,52 +402,110 @@ public class GameStoreService {
       return SubscriptionResult.error("No active subscription found");
     }
 
+    // Conditional, so a billing run that expired it meanwhile is not undone and not counted twice
     Subscription subscription = subscriptionOpt.get();
+    if (!subscriptionRepository.cancelActive(subscription.getId())) {
+      return SubscriptionResult.error("No active subscription found");
+    }
     subscription.setActive(false);
     subscription.setStatus("CANCELLED");
+    subscription.setBillingRun(null);
     subscription.setUpdatedAt(LocalDateTime.now());
-    subscriptionRepository.save(subscription);
+    counters.unsubscribed(subscription.getSubscriptionType());
 
-    // Update user profile
-    UserProfile user = userOpt.get();
-    user.setPremiumMember(false);
-    user.setUpdatedAt(LocalDateTime.now());
-    userProfileRepository.save(user);
+    // Update user profile; a targeted update so a concurrent wallet debit is not overwritten
+    userProfileRepository.setPremiumMember(userOpt.get().getId(), false);
+    profiles.invalidate(username);
 
     return SubscriptionResult.success(subscription);
   }
 
+  /** Runs subscription billing now; {@code null} if a run is already in progress. */
+  public SubscriptionBilling.Run runBilling() {
+    return billing.run();
+  }
+
+  public SubscriptionBilling.Run lastBillingRun() {
+    return billing.lastRun();
+  }
+
   // Wallet Management
+  /** Credits the wallet; throws if {@code amount} is missing or not positive. */
   public boolean addToWallet(String username, BigDecimal amount) {
-    Optional<UserProfile> userOpt = userProfileRepository.findByUsername(username);
-    if (userOpt.isEmpty()) {
-      return false;
+    if (amount == null || amount.signum() <= 0) {
+      throw new IllegalArgumentException("Amount must be positive");
     }
-
-    UserProfile user = userOpt.get();
-    user.setWalletBalance(user.getWalletBalance().add(amount));
-    user.setUpdatedAt(LocalDateTime.now());
-    userProfileRepository.save(user);
-    return true;
+    return userProfileRepository.creditWallet(username, amount);
   }
 
   // Analytics
-  public List<UserProfile> getTopSpenders(int limit) {
-    Pageable pageable = PageRequest.of(0, limit);
-    return userProfileRepository.findTopSpenders(pageable);
+  public CursorPage<UserProfile> getTopSpenders(String cursor, int limit, boolean count) {
+    return rankedProfiles("totalSpent", BigDecimal::new, p -> String.valueOf(p.getTotalSpent()), cursor, limit, count);
   }
 
-  public List<UserProfile> getTopBuyers(int limit) {
-    Pageable pageable = PageRequest.of(0, limit);
-    return userProfileRepository.findTopBuyers(pageable);
+  public CursorPage<UserProfile> getTopBuyers(String cursor, int limit, boolean count) {
+    return rankedProfiles("totalGamesPurchased", Integer::valueOf, p -> String.valueOf(p.getTotalGamesPurchased()),
+        cursor, limit, count);
   }
 
+  private CursorPage<UserProfile> rankedProfiles(String field, Function<String, Object> parse,
+                                                 Function<UserProfile, String> key, String cursor, int limit,
+                                                 boolean count) {
+    Object afterValue = null;
+    String afterId = null;
+    if (cursor != null) {
+      String[] parts = PageCursor.decode(cursor, 2);
+      afterValue = parse.apply(parts[0]); // NumberFormatException is an IllegalArgumentException
+      afterId = parts[1];
+    }
+    List<UserProfile> profiles = userProfileRepository.findPageOrderedBy(field, afterValue, afterId, clamp(limit) + 1);
+    return page(profiles, clamp(limit), p -> PageCursor.encode(key.apply(p), p.getId()),
+        count ? userProfileRepository.count() : null);
+  }
+
+  /** Trims a {@code size + 1} fetch to {@code size} and derives the next cursor from the last item kept. */
+  private static <T> CursorPage<T> page(List<T> fetched, int size, Function<T, String> cursorOf, Long total) {
+    if (fetched.size() <= size) {
+      return new CursorPage<>(fetched, null, total);
+    }
+    List<T> items = fetched.subList(0, size);
+    return new CursorPage<>(items, cursorOf.apply(items.get(size - 1)), total);
+  }
+
+  private BitSet library(String username) {
+    ProfileKeyCache.ProfileKey user = profiles.get(username)
+        .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    return ownership.owned(user.getId());
+  }
+
+  private static int clamp(int size) {
+    return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+  }
+
+  // Store totals, read from the materialised counters
   public long getTotalActiveSubscriptions() {
-    return subscriptionRepository.countByIsActiveTrue();
+    return counters.get(StoreCounters.ACTIVE_SUBSCRIPTIONS);
   }
 
   public long getTotalCompletedPurchases() {
-    return purchaseRepository.countByStatus("COMPLETED");
+    return counters.completedPurchases();
+  }
+
+  public Map<String, Long> getActiveSubscriptionsByType() {
+    return counters.activeByType();
+  }
+
+  public long getPurchasesOn(LocalDate day) {
+    return counters.purchasesOn(day);
+  }
+
+  public long getGamePurchaseCount(String gameId) {
+    return counters.get(StoreCounters.PURCHASES_BY_GAME + gameId);
+  }
+
+  public StoreCounters.Stats reconcileCounters() {
+    counters.reconcile();
+    return counters.stats();
   }
 
   private BigDecimal getSubscriptionPrice(String subscriptionType) {
@@ -273,6 +541,68 @@ public class GameStoreService {
     public String getMessage() { return message; }
     public Purchase getPurchase() { return purchase; }
   }
+  public static class CheckoutResult {
+    private final boolean success;
+    private final String message;
+    private final List<CheckoutItem> items;
+    private final BigDecimal charged;
+    private final BigDecimal walletBalance;
+
+    private CheckoutResult(boolean success, String message, List<CheckoutItem> items, BigDecimal charged,
+                           BigDecimal walletBalance) {
+      this.success = success;
+      this.message = message;
+      this.items = items;
+      this.charged = charged;
+      this.walletBalance = walletBalance;
+    }
+
+    public static CheckoutResult success(List<CheckoutItem> items, BigDecimal charged, BigDecimal walletBalance) {
+      return new CheckoutResult(true, "Checkout completed", items, charged, walletBalance);
+    }
+
+    public static CheckoutResult error(String message) {
+      return error(message, List.of());
+    }
+
+    public static CheckoutResult error(String message, List<CheckoutItem> items) {
+      return new CheckoutResult(false, message, items, BigDecimal.ZERO, null);
+    }
+
+    public boolean isSuccess() { return success; }
+    public String getMessage() { return message; }
+    public List<CheckoutItem> getItems() { return items; }
+    public BigDecimal getCharged() { return charged; }
+    public BigDecimal getWalletBalance() { return walletBalance; }
+  }
+
+  public static class CheckoutItem {
+    public static final String PURCHASED = "PURCHASED";
+    public static final String ALREADY_OWNED = "ALREADY_OWNED";
+    public static final String NOT_FOUND = "NOT_FOUND";
+    public static final String FAILED = "FAILED";
+
+    private final String gameId;
+    private final String gameTitle;
+    private final BigDecimal price;
+    private final String status;
+    private final Purchase purchase;
+
+    public CheckoutItem(String gameId, String gameTitle, BigDecimal price, String status, Purchase purchase) {
+      this.gameId = gameId;
+      this.gameTitle = gameTitle;
+      this.price = price;
+      this.status = status;
+      this.purchase = purchase;
+    }
+
+    public String getGameId() { return gameId; }
+    public String getGameTitle() { return gameTitle; }
+    public BigDecimal getPrice() { return price; }
+    public String getStatus() { return status; }
+    public Purchase getPurchase() { return purchase; }
+  }
+
 
   public static class SubscriptionResult {
     private final boolean success;
@@ -3,83 +3,265 @@ package com.bezkoder.spring.security.mongodb.service;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Random;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import com.bezkoder.spring.security.mongodb.domain.wordhunt.WhDailySeed;
 import com.bezkoder.spring.security.mongodb.domain.wordhunt.WhScore;
-import com.bezkoder.spring.security.mongodb.repository.WhDailySeedRepository;
 import com.bezkoder.spring.security.mongodb.repository.WhScoreRepository;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.BoardPregenerator;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.BoardSolver;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.DailyBoardCache;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.DailyLeaderboard;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.GridGeometry;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.LeaderboardIndex;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.LeaderboardPeriod;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.PlaySession;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.PlaySessionStore;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.ScoreHistogram;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.ScoreRollups;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.ScoreStatsIndex;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.ScoreWriteBehind;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.SolvedBoard;
+import com.bezkoder.spring.security.mongodb.service.wordhunt.WordDictionary;
 
 @Service
 public class WordHuntService {
-  private final WhDailySeedRepository seedRepository;
   private final WhScoreRepository scoreRepository;
+  private final DailyBoardCache boards;
+  private final BoardPregenerator pregenerator;
+  private final LeaderboardIndex leaderboards;
+  private final ScoreStatsIndex scoreStats;
+  private final ScoreWriteBehind scoreWriter;
+  private final ScoreRollups rollups;
+  private final PlaySessionStore sessions;
+  private final WordDictionary dictionary;
 
-  private static final int DEFAULT_GRID_SIZE = 4;
-  private static final String ALPHABET = "EEEEEEEEEEEEAAAAAAAAAIIIIIIIIIIOOOOOOOOONNNNNNRRRRRRTTTTTLLLLSSSSUUUUDDDDGGGBBCCMMPPFFHHVVWWYYKJXQZ"; // biased frequency
-
-  private static final Set<String> DICTIONARY = new HashSet<>(Arrays.asList(
-    // minimal demo dictionary – replace with a larger list as needed
-    "CAT", "DOG", "TREE", "READ", "WORD", "HUNT", "GAME", "SCORE", "GRID", "JAVA",
-    "CODE", "MONGO", "SPRING", "BEAN", "USER", "ROLE", "WAVE", "TONE", "STONE", "NOTE",
-    "HONEY", "RING", "RANGE", "RANGER", "MEAN", "MEANT", "GO", "GOAL", "GOALS", "TEA",
-    "EAT", "ATE", "RATE", "RATED", "RATES", "STAR", "START", "STARTS", "TAR", "ART"
-  ));
+  private static final int DEFAULT_GRID_SIZE = GridGeometry.DEFAULT_SIZE;
+  private static final int MAX_SYNC_DAYS = 60;
 
   @Autowired
-  public WordHuntService(WhDailySeedRepository seedRepository, WhScoreRepository scoreRepository) {
-    this.seedRepository = seedRepository;
+  public WordHuntService(WhScoreRepository scoreRepository, DailyBoardCache boards, BoardPregenerator pregenerator,
+                         LeaderboardIndex leaderboards, ScoreStatsIndex scoreStats,
+                         ScoreWriteBehind scoreWriter, ScoreRollups rollups, PlaySessionStore sessions,
+                         WordDictionary dictionary) {
     this.scoreRepository = scoreRepository;
+    this.boards = boards;
+    this.pregenerator = pregenerator;
+    this.leaderboards = leaderboards;
+    this.scoreStats = scoreStats;
+    this.scoreWriter = scoreWriter;
+    this.rollups = rollups;
+    this.sessions = sessions;
+    this.dictionary = dictionary;
   }
 
-  public DailyResult getDaily(LocalDate date, Integer sizeOpt) {
+  public SolvedBoard getDaily(LocalDate date, Integer sizeOpt) {
     int size = sizeOpt == null ? DEFAULT_GRID_SIZE : Math.max(3, Math.min(6, sizeOpt));
-    WhDailySeed seed = seedRepository.findByDate(date).orElseGet(() -> {
-      long newSeed = computeDeterministicSeed(date);
-      WhDailySeed created = new WhDailySeed(date, newSeed);
-      return seedRepository.save(created);
-    });
-    char[][] grid = generateGrid(seed.getSeed(), size);
-    return new DailyResult(seed.getSeed(), size, grid);
+    return boards.get(date, size);
   }
 
   public SubmitResult submit(LocalDate date, String userId, String username, List<String> words) {
+    requireNotFuture(date);
     if (words == null) {
       words = Collections.emptyList();
     }
-    WhScore existing = scoreRepository.findByUserIdAndDate(userId, date).orElse(null);
+    // The in-memory leaderboard is the authority on who has played a day: the
+    // score itself is persisted asynchronously by the write-behind stage.
+    DailyLeaderboard standings = leaderboards.forDate(date);
+    DailyLeaderboard.Entry existing = standings.get(userId);
     if (existing != null) {
-      // simple daily cap: one submission per day
-      return SubmitResult.rejected("Already submitted today.", existing.getScore(), existing.getWordsFound(), existing.getFoundWords());
+      return alreadySubmitted(date, existing);
+    }
+
+    SolvedBoard board = boards.get(date, DEFAULT_GRID_SIZE);
+    List<String> accepted = acceptedWords(board, words);
+    return record(date, userId, username, accepted, totalScore(board, accepted));
+  }
+
+  /**
+   * Submits several days at once, e.g. after a client played offline.
+   * Days after today are refused. Already-submitted days are found with one
+   * {@code $in} query on {@code user_date_idx}, and the new scores are
+   * inserted with one bulk write. Results come back in request order.
+   */
+  public List<SyncResult> sync(String userId, String username, Map<LocalDate, List<String>> days) {
+    if (days.size() > MAX_SYNC_DAYS) {
+      throw new IllegalArgumentException("At most " + MAX_SYNC_DAYS + " days can be synced at once");
+    }
+    LocalDate today = LocalDate.now();
+    if (days.keySet().stream().anyMatch(date -> date.isAfter(today))) {
+      throw new IllegalArgumentException("Days after today cannot be synced");
+    }
+    Map<LocalDate, WhScore> stored = new HashMap<>();
+    for (WhScore s : scoreRepository.findByUserIdAndDateIn(userId, days.keySet())) {
+      stored.put(s.getDate(), s);
+    }
+
+    List<SyncResult> results = days.entrySet().stream()
+        .map(day -> {
+          LocalDate date = day.getKey();
+          WhScore existing = stored.get(date);
+          if (existing != null) {
+            return new SyncResult(date, SubmitResult.rejected("Already submitted.", existing.getScore(),
+                existing.getWordsFound(), existing.getFoundWords()), null);
+          }
+          SolvedBoard board = boards.get(date, DEFAULT_GRID_SIZE);
+          List<String> accepted = acceptedWords(board, day.getValue() == null ? List.of() : day.getValue());
+          int total = totalScore(board, accepted);
+          WhScore score = newScore(date, userId, username, accepted, total);
+          score.setId(new ObjectId().toHexString());
+          return new SyncResult(date, SubmitResult.accepted(total, accepted.size(), accepted), score);
+        })
+        .collect(Collectors.toList());
+
+    // Days whose leaderboard is in memory may have a score still queued for
+    // writing; claim them first, exactly as a single submission does.
+    List<WhScore> pending = new ArrayList<>();
+    List<WhScore> claimed = new ArrayList<>();
+    for (int i = 0; i < results.size(); i++) {
+      SyncResult r = results.get(i);
+      if (r.pending == null) continue;
+      DailyLeaderboard standings = leaderboards.ifLoaded(r.date);
+      if (standings != null) {
+        if (!standings.putIfAbsent(userId, username, r.result.score, r.result.wordsFound)) {
+          DailyLeaderboard.Entry entry = standings.get(userId);
+          results.set(i, new SyncResult(r.date, SubmitResult.rejected("Already submitted.", entry.score,
+              entry.wordsFound, List.of()), null));
+          continue;
+        }
+        claimed.add(r.pending);
+      }
+      pending.add(r.pending);
     }
 
-    DailyResult daily = getDaily(date, DEFAULT_GRID_SIZE);
+    Set<WhScore> inserted;
+    try {
+      inserted = Collections.newSetFromMap(new IdentityHashMap<>());
+      inserted.addAll(scoreRepository.insertNew(pending));
+    } catch (RuntimeException e) {
+      claimed.forEach(s -> leaderboards.reload(s.getDate(), userId));
+      throw e;
+    }
+
+    for (int i = 0; i < results.size(); i++) {
+      SyncResult r = results.get(i);
+      if (r.pending == null) continue;
+      if (inserted.contains(r.pending)) {
+        ScoreHistogram histogram = scoreStats.ifLoaded(r.date);
+        if (histogram != null) {
+          histogram.add(r.pending.getScore(), 1);
+        }
+        if (!claimed.contains(r.pending)) {
+          DailyLeaderboard standings = leaderboards.ifLoaded(r.date);
+          if (standings != null) {
+            standings.put(userId, username, r.pending.getScore(), r.pending.getWordsFound());
+          }
+        }
+      } else {
+        // Another device or instance stored this day in the meantime.
+        leaderboards.reload(r.date, userId);
+        results.set(i, new SyncResult(r.date, SubmitResult.rejected("Already submitted.", 0, 0, List.of()), null));
+      }
+    }
+    rollups.apply(new ArrayList<>(inserted));
+    return results;
+  }
+
+  private static List<String> acceptedWords(SolvedBoard board, List<String> words) {
     Set<String> unique = words.stream()
         .filter(Objects::nonNull)
         .map(s -> s.trim().toUpperCase())
-        .filter(s -> s.length() >= 3)
+        .filter(s -> s.length() >= BoardSolver.MIN_WORD_LENGTH)
         .collect(Collectors.toCollection(HashSet::new));
-
     List<String> accepted = new ArrayList<>();
-    int total = 0;
     for (String w : unique) {
-      if (isValidWordOnGrid(w, daily.grid) && DICTIONARY.contains(w)) {
+      if (board.scoreOf(w) > 0) {
         accepted.add(w);
-        total += scoreFor(w);
       }
     }
+    return accepted;
+  }
+
+  private static int totalScore(SolvedBoard board, List<String> accepted) {
+    int total = 0;
+    for (String w : accepted) {
+      total += board.scoreOf(w);
+    }
+    return total;
+  }
+
+  /**
+   * Opens a play session on the day's board, or resumes the player's open
+   * one. Players who already submitted for {@code date} are turned away.
+   */
+  public OpenSessionResult openSession(LocalDate date, String userId, String username) {
+    requireNotFuture(date);
+    DailyLeaderboard.Entry existing = leaderboards.forDate(date).get(userId);
+    if (existing != null) {
+      return new OpenSessionResult(null, "Already submitted today.");
+    }
+    return new OpenSessionResult(sessions.open(userId, username, date, boards.get(date, DEFAULT_GRID_SIZE)), "OK");
+  }
+
+  private static void requireNotFuture(LocalDate date) {
+    if (date.isAfter(LocalDate.now())) {
+      throw new IllegalArgumentException("Days after today cannot be played");
+    }
+  }
+
+  /** Checks one word against the session's board; null if the session is unknown. */
+  public PlaySession.Attempt tryWord(String sessionId, String word) {
+    PlaySession session = sessions.get(sessionId);
+    return session == null ? null : session.tryWord(word);
+  }
+
+  /** Records the session's score; null if the session is unknown. */
+  public SubmitResult commitSession(String sessionId) {
+    PlaySession session = sessions.get(sessionId);
+    if (session == null) return null;
+    List<String> words = sessions.close(session);
+    if (words == null) {
+      return SubmitResult.rejected("Session already committed.", session.score(), session.words().size(), session.words());
+    }
+    return record(session.date, session.userId, session.username, words, session.score());
+  }
+
+  /** Commits sessions that have gone idle, so a closed tab does not lose a game. */
+  @Scheduled(fixedDelayString = "${wordhunt.sessions.sweep-ms:60000}")
+  public void expireSessions() {
+    for (PlaySession session : sessions.evictIdle()) {
+      List<String> words = sessions.close(session);
+      if (words != null && !words.isEmpty()) {
+        record(session.date, session.userId, session.username, words, session.score());
+      }
+    }
+  }
 
+  /** Claims the player's day and queues the score; the one write per game. */
+  private SubmitResult record(LocalDate date, String userId, String username, List<String> accepted, int total) {
+    DailyLeaderboard standings = leaderboards.forDate(date);
+    if (!standings.putIfAbsent(userId, username, total, accepted.size())) {
+      // simple daily cap: one submission per day
+      return alreadySubmitted(date, standings.get(userId));
+    }
+    scoreStats.record(date, total);
+    scoreWriter.enqueue(newScore(date, userId, username, accepted, total));
+    return SubmitResult.accepted(total, accepted.size(), accepted);
+  }
+
+  private static WhScore newScore(LocalDate date, String userId, String username, List<String> accepted, int total) {
     WhScore score = new WhScore();
     score.setUserId(userId);
     score.setUsername(username);
@@ -88,88 +270,122 @@ public class WordHuntService {
     score.setWordsFound(accepted.size());
     score.setFoundWords(accepted);
     score.setUpdatedAt(OffsetDateTime.now());
-    scoreRepository.save(score);
+    return score;
+  }
 
-    return SubmitResult.accepted(total, accepted.size(), accepted);
+  private SubmitResult alreadySubmitted(LocalDate date, DailyLeaderboard.Entry entry) {
+    // The stored document may still be queued; fall back to the in-memory totals.
+    List<String> found = scoreRepository.findByUserIdAndDate(entry.userId, date)
+        .map(WhScore::getFoundWords)
+        .orElse(List.of());
+    return SubmitResult.rejected("Already submitted today.", entry.score, entry.wordsFound, found);
   }
 
-  public List<WhScore> leaderboard(LocalDate date, int limit) {
+  public List<DailyLeaderboard.Ranked> leaderboard(LeaderboardPeriod period, LocalDate date, int limit) {
     int capped = Math.max(1, Math.min(200, limit));
-    return scoreRepository.findByDateOrderByScoreDesc(date, PageRequest.of(0, capped));
+    if (period.isRollup()) {
+      return rollups.top(period, date, capped);
+    }
+    return leaderboards.forDate(date).top(capped);
   }
 
-  public WhScore me(LocalDate date, String userId) {
-    return scoreRepository.findByUserIdAndDate(userId, date).orElse(null);
+  public ScoreRollups.Backfill rebuildRollups() {
+    return rollups.rebuild();
   }
 
-  private static long computeDeterministicSeed(LocalDate date) {
-    // Simple seed from date components to keep deterministic
-    return date.getYear() * 10000L + date.getMonthValue() * 100L + date.getDayOfMonth();
+  public MeResult me(LocalDate date, String userId, int around) {
+    DailyLeaderboard board = leaderboards.forDate(date);
+    if (board.get(userId) == null) {
+      return new MeResult(null, 0, board.size(), List.of());
+    }
+    WhScore score = scoreRepository.findByUserIdAndDate(userId, date).orElse(null);
+    int k = Math.max(0, Math.min(50, around));
+    return new MeResult(score, board.rankOf(userId), board.size(), k == 0 ? List.of() : board.around(userId, k));
   }
 
-  private static char[][] generateGrid(long seed, int size) {
-    Random rand = new Random(seed);
-    char[][] grid = new char[size][size];
-    for (int r = 0; r < size; r++) {
-      for (int c = 0; c < size; c++) {
-        int idx = rand.nextInt(ALPHABET.length());
-        grid[r][c] = ALPHABET.charAt(idx);
-      }
+  public StatsResult stats(LocalDate date, String userId) {
+    ScoreHistogram histogram = scoreStats.forDate(date);
+    DailyLeaderboard.Entry mine = userId == null ? null : leaderboards.forDate(date).get(userId);
+    Integer score = mine == null ? null : mine.score;
+    Double percentile = mine == null ? null : histogram.percentBelow(mine.score);
+    return new StatsResult(histogram.count(), histogram.mean(), histogram.percentile(50),
+        histogram.percentile(90), histogram.percentile(99), histogram.maxScore(), score, percentile);
+  }
+
+  public Metrics metrics() {
+    return new Metrics(dictionary.footprint(), boards.stats(), pregenerator.stats(), sessions.stats(),
+        scoreWriter.stats());
+  }
+
+  public static class SyncResult {
+    public final LocalDate date;
+    public final SubmitResult result;
+    final WhScore pending;
+    SyncResult(LocalDate date, SubmitResult result, WhScore pending) {
+      this.date = date;
+      this.result = result;
+      this.pending = pending;
     }
-    return grid;
   }
 
-  private static boolean isValidWordOnGrid(String word, char[][] grid) {
-    int n = grid.length;
-    boolean[][] visited = new boolean[n][n];
-    for (int r = 0; r < n; r++) {
-      for (int c = 0; c < n; c++) {
-        if (grid[r][c] == word.charAt(0)) {
-          if (dfs(word, 0, r, c, grid, visited)) return true;
-        }
-      }
+  public static class OpenSessionResult {
+    public final PlaySession session;
+    public final String message;
+    public OpenSessionResult(PlaySession session, String message) {
+      this.session = session;
+      this.message = message;
     }
-    return false;
-  }
-
-  private static boolean dfs(String word, int idx, int r, int c, char[][] grid, boolean[][] visited) {
-    if (idx == word.length()) return true;
-    if (r < 0 || c < 0 || r >= grid.length || c >= grid.length) return false;
-    if (visited[r][c]) return false;
-    if (grid[r][c] != word.charAt(idx)) return false;
-    visited[r][c] = true;
-    // explore 8 directions
-    for (int dr = -1; dr <= 1; dr++) {
-      for (int dc = -1; dc <= 1; dc++) {
-        if (dr == 0 && dc == 0) continue;
-        if (dfs(word, idx + 1, r + dr, c + dc, grid, visited)) {
-          visited[r][c] = false;
-          return true;
-        }
-      }
+  }
+
+  public static class StatsResult {
+    public final long players;
+    public final double mean;
+    public final int p50;
+    public final int p90;
+    public final int p99;
+    public final int maxScore;
+    public final Integer score;
+    public final Double percentile;
+    public StatsResult(long players, double mean, int p50, int p90, int p99, int maxScore,
+                       Integer score, Double percentile) {
+      this.players = players;
+      this.mean = mean;
+      this.p50 = p50;
+      this.p90 = p90;
+      this.p99 = p99;
+      this.maxScore = maxScore;
+      this.score = score;
+      this.percentile = percentile;
     }
-    visited[r][c] = false;
-    return idx + 1 == word.length();
   }
 
-  private static int scoreFor(String word) {
-    int len = word.length();
-    if (len <= 2) return 0;
-    if (len <= 4) return 1;
-    if (len == 5) return 2;
-    if (len == 6) return 3;
-    if (len == 7) return 5;
-    return 11;
+  public static class Metrics {
+    public final WordDictionary.Footprint dictionary;
+    public final DailyBoardCache.Stats boardCache;
+    public final BoardPregenerator.Stats pregeneration;
+    public final PlaySessionStore.Stats sessions;
+    public final ScoreWriteBehind.Stats scoreWriter;
+    public Metrics(WordDictionary.Footprint dictionary, DailyBoardCache.Stats boardCache,
+                   BoardPregenerator.Stats pregeneration, PlaySessionStore.Stats sessions,
+                   ScoreWriteBehind.Stats scoreWriter) {
+      this.dictionary = dictionary;
+      this.boardCache = boardCache;
+      this.pregeneration = pregeneration;
+      this.sessions = sessions;
+      this.scoreWriter = scoreWriter;
+    }
   }
 
-  public static class DailyResult {
-    public final long seed;
-    public final int size;
-    public final char[][] grid;
-    public DailyResult(long seed, int size, char[][] grid) {
-      this.seed = seed;
-      this.size = size;
-      this.grid = grid;
+  public static class MeResult {
+    public final WhScore score;
+    public final int rank;
+    public final int totalPlayers;
+    public final List<DailyLeaderboard.Ranked> around;
+    public MeResult(WhScore score, int rank, int totalPlayers, List<DailyLeaderboard.Ranked> around) {
+      this.score = score;
+      this.rank = rank;
+      this.totalPlayers = totalPlayers;
+      this.around = around;
     }
   }
 
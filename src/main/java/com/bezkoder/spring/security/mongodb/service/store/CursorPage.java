@@ -0,0 +1,23 @@
+package com.bezkoder.spring.security.mongodb.service.store;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated list. {@code nextCursor} is {@code null} on
+ * the last page; {@code total} is only filled in when it was asked for.
+ */
+public class CursorPage<T> {
+  private final List<T> items;
+  private final String nextCursor;
+  private final Long total;
+
+  public CursorPage(List<T> items, String nextCursor, Long total) {
+    this.items = items;
+    this.nextCursor = nextCursor;
+    this.total = total;
+  }
+
+  public List<T> getItems() { return items; }
+  public String getNextCursor() { return nextCursor; }
+  public Long getTotal() { return total; }
+}
@@ -0,0 +1,290 @@
+package com.bezkoder.spring.security.mongodb.service.store;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import com.bezkoder.spring.security.mongodb.domain.store.Game;
+
+/**
+ * Bitset indexes for combined catalog filters.
+ *
+ * Every game is a position in the snapshot list. Category, developer and tag
+ * values each own a {@link BitSet} of positions; price and rating ranges are
+ * binary searches over positions sorted by that field. A query ANDs one
+ * bitset per filtered dimension, and each facet is counted over the AND of
+ * all the other dimensions, so the result and every facet come out of the
+ * same handful of bitset operations.
+ *
+ * Instances are immutable and built once per catalog snapshot.
+ */
+final class FacetIndex {
+  static final String CATEGORY = "category";
+  static final String DEVELOPER = "developer";
+  static final String TAG = "tag";
+  static final String PRICE = "price";
+
+  private static final BigDecimal[] PRICE_BOUNDS = {
+    BigDecimal.ZERO, new BigDecimal("10"), new BigDecimal("30"), new BigDecimal("60")
+  };
+  private static final String[] PRICE_BUCKETS = { "free", "under-10", "10-30", "30-60", "60-plus" };
+
+  private final List<Game> games;
+  private final Map<String, BitSet> byCategory = new HashMap<>();
+  private final Map<String, BitSet> byDeveloper = new HashMap<>();
+  private final Map<String, BitSet> byTag = new HashMap<>();
+  private final int[] priceBucket;
+  /** Positions by ascending price; the first {@code priced} have a price. */
+  private final int[] byPrice;
+  private final int priced;
+  /** Positions by descending rating. */
+  private final int[] byRating;
+  private final int[] byTitle;
+
+  FacetIndex(List<Game> games) {
+    this.games = games;
+    int n = games.size();
+    this.priceBucket = new int[n];
+    for (int i = 0; i < n; i++) {
+      Game g = games.get(i);
+      set(byCategory, g.getCategory(), i);
+      set(byDeveloper, g.getDeveloper(), i);
+      if (g.getTags() != null) {
+        for (String tag : g.getTags()) {
+          set(byTag, tag, i);
+        }
+      }
+      priceBucket[i] = bucket(g.getPrice());
+    }
+    this.byPrice = sorted(n, Comparator.comparing((Integer i) -> games.get(i).getPrice(),
+        Comparator.nullsLast(Comparator.naturalOrder())));
+    int p = 0;
+    while (p < n && games.get(byPrice[p]).getPrice() != null) p++;
+    this.priced = p;
+    this.byRating = sorted(n, Comparator.comparingDouble((Integer i) -> -games.get(i).getRating()));
+    this.byTitle = sorted(n, Comparator.comparing((Integer i) -> games.get(i).getTitle(),
+        Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
+  }
+
+  /**
+   * Runs {@code q}. {@code restrict}, if not {@code null}, is one more filter
+   * over positions that applies to the result and to every facet.
+   */
+  GameQueryResult run(GameQuery q, SearchIndex search, BitSet restrict) {
+    int n = games.size();
+    BitSet category = anyOf(byCategory, q.getCategories());
+    BitSet developer = anyOf(byDeveloper, q.getDevelopers());
+    BitSet tags = allOf(byTag, q.getTags(), n);
+    BitSet price = priceBetween(q.getMinPrice(), q.getMaxPrice());
+    BitSet rating = q.getMinRating() == null ? null : ratingAtLeast(q.getMinRating());
+    SearchIndex.Matches matches = q.hasText() ? search.match(q.getText()) : null;
+    BitSet text = null;
+    float[] scores = null;
+    if (matches != null) {
+      text = new BitSet(n);
+      scores = new float[n];
+      for (int i = 0; i < matches.size; i++) {
+        text.set(matches.docs[i]);
+        scores[matches.docs[i]] = matches.scores[i];
+      }
+    }
+
+    BitSet[] filters = { category, developer, tags, price, rating, text, restrict };
+    BitSet result = and(n, filters, -1);
+
+    Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+    facets.put(CATEGORY, count(and(n, filters, 0), g -> optional(g.getCategory())));
+    facets.put(DEVELOPER, count(and(n, filters, 1), g -> optional(g.getDeveloper())));
+    facets.put(TAG, count(and(n, filters, 2), g -> g.getTags() == null ? List.of() : g.getTags()));
+    facets.put(PRICE, priceCounts(and(n, filters, 3)));
+
+    GameQuery.Order order = q.getOrder();
+    if (order == null) order = matches != null ? GameQuery.Order.RELEVANCE : GameQuery.Order.CATALOG;
+    int[] positions = ordered(result, order, scores);
+    int from = (int) Math.min((long) q.getPage() * q.getSize(), positions.length);
+    int to = Math.min(from + q.getSize(), positions.length);
+    List<Game> page = new ArrayList<>(to - from);
+    for (int i = from; i < to; i++) {
+      page.add(games.get(positions[i]));
+    }
+    return new GameQueryResult(page, positions.length, q.getPage(), q.getSize(), facets);
+  }
+
+  /** Games priced within {@code [min, max]}, in catalog order. */
+  List<Game> inPriceRange(BigDecimal min, BigDecimal max) {
+    BitSet bits = priceBetween(min, max);
+    if (bits == null) return games;
+    List<Game> out = new ArrayList<>(bits.cardinality());
+    for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+      out.add(games.get(i));
+    }
+    return out;
+  }
+
+  private int[] ordered(BitSet result, GameQuery.Order order, float[] scores) {
+    switch (order) {
+      case PRICE_ASC:
+        return filter(byPrice, result);
+      case PRICE_DESC: {
+        // Highest price first, games without a price still last.
+        int[] out = new int[result.cardinality()];
+        int k = 0;
+        for (int i = priced - 1; i >= 0; i--) {
+          if (result.get(byPrice[i])) out[k++] = byPrice[i];
+        }
+        for (int i = priced; i < byPrice.length; i++) {
+          if (result.get(byPrice[i])) out[k++] = byPrice[i];
+        }
+        return out;
+      }
+      case RATING:
+        return filter(byRating, result);
+      case TITLE:
+        return filter(byTitle, result);
+      case RELEVANCE:
+        if (scores != null) {
+          Comparator<Integer> bestFirst = Comparator
+              .comparingDouble((Integer i) -> -scores[i])
+              .thenComparingDouble(i -> -games.get(i).getRating())
+              .thenComparing(i -> games.get(i).getTitle(), Comparator.nullsLast(String::compareTo));
+          return result.stream().boxed().sorted(bestFirst).mapToInt(Integer::intValue).toArray();
+        }
+        return result.stream().toArray();
+      default:
+        return result.stream().toArray();
+    }
+  }
+
+  private static int[] filter(int[] order, BitSet keep) {
+    int[] out = new int[keep.cardinality()];
+    int k = 0;
+    for (int i : order) {
+      if (keep.get(i)) out[k++] = i;
+    }
+    return out;
+  }
+
+  private BitSet priceBetween(BigDecimal min, BigDecimal max) {
+    if (min == null && max == null) return null;
+    int lo = min == null ? 0 : firstPriceAtLeast(min, false);
+    int hi = max == null ? priced : firstPriceAtLeast(max, true);
+    BitSet bits = new BitSet(games.size());
+    for (int i = lo; i < hi; i++) {
+      bits.set(byPrice[i]);
+    }
+    return bits;
+  }
+
+  /** First index in {@link #byPrice} with a price {@code >= bound} (or {@code > bound} if {@code strict}). */
+  private int firstPriceAtLeast(BigDecimal bound, boolean strict) {
+    int lo = 0;
+    int hi = priced;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      int c = games.get(byPrice[mid]).getPrice().compareTo(bound);
+      if (c < 0 || (strict && c == 0)) lo = mid + 1;
+      else hi = mid;
+    }
+    return lo;
+  }
+
+  private BitSet ratingAtLeast(double min) {
+    BitSet bits = new BitSet(games.size());
+    for (int i : byRating) {
+      if (games.get(i).getRating() < min) break;
+      bits.set(i);
+    }
+    return bits;
+  }
+
+  private Map<String, Integer> count(BitSet base, Function<Game, Collection<String>> values) {
+    Map<String, Integer> counts = new HashMap<>();
+    for (int i = base.nextSetBit(0); i >= 0; i = base.nextSetBit(i + 1)) {
+      for (String v : values.apply(games.get(i))) {
+        counts.merge(v, 1, Integer::sum);
+      }
+    }
+    return byCountDesc(counts);
+  }
+
+  private Map<String, Integer> priceCounts(BitSet base) {
+    int[] counts = new int[PRICE_BUCKETS.length];
+    for (int i = base.nextSetBit(0); i >= 0; i = base.nextSetBit(i + 1)) {
+      if (priceBucket[i] >= 0) counts[priceBucket[i]]++;
+    }
+    Map<String, Integer> out = new LinkedHashMap<>();
+    for (int b = 0; b < counts.length; b++) {
+      if (counts[b] > 0) out.put(PRICE_BUCKETS[b], counts[b]);
+    }
+    return out;
+  }
+
+  private static Map<String, Integer> byCountDesc(Map<String, Integer> counts) {
+    Map<String, Integer> out = new LinkedHashMap<>();
+    counts.entrySet().stream()
+        .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+        .forEach(e -> out.put(e.getKey(), e.getValue()));
+    return out;
+  }
+
+  /** AND of every non-null filter except the one at {@code skip}; all positions if none apply. */
+  private static BitSet and(int n, BitSet[] filters, int skip) {
+    BitSet bits = new BitSet(n);
+    bits.set(0, n);
+    for (int i = 0; i < filters.length; i++) {
+      if (i != skip && filters[i] != null) bits.and(filters[i]);
+    }
+    return bits;
+  }
+
+  private static BitSet anyOf(Map<String, BitSet> index, List<String> values) {
+    if (values.isEmpty()) return null;
+    BitSet bits = new BitSet();
+    for (String v : values) {
+      BitSet b = index.get(v);
+      if (b != null) bits.or(b);
+    }
+    return bits;
+  }
+
+  private static BitSet allOf(Map<String, BitSet> index, List<String> values, int n) {
+    if (values.isEmpty()) return null;
+    BitSet bits = new BitSet(n);
+    bits.set(0, n);
+    for (String v : values) {
+      BitSet b = index.get(v);
+      if (b == null) return new BitSet();
+      bits.and(b);
+    }
+    return bits;
+  }
+
+  private static void set(Map<String, BitSet> index, String value, int position) {
+    if (value != null) index.computeIfAbsent(value, k -> new BitSet()).set(position);
+  }
+
+  private static int bucket(BigDecimal price) {
+    if (price == null) return -1;
+    if (price.signum() == 0) return 0;
+    for (int b = 1; b < PRICE_BOUNDS.length; b++) {
+      if (price.compareTo(PRICE_BOUNDS[b]) < 0) return b;
+    }
+    return PRICE_BOUNDS.length;
+  }
+
+  private static int[] sorted(int n, Comparator<Integer> order) {
+    return IntStream.range(0, n).boxed().sorted(order).mapToInt(Integer::intValue).toArray();
+  }
+
+  private static List<String> optional(String value) {
+    return value == null ? List.of() : List.of(value);
+  }
+}
@@ -0,0 +1,324 @@
+package com.bezkoder.spring.security.mongodb.service.store;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.bezkoder.spring.security.mongodb.domain.store.Game;
+import com.bezkoder.spring.security.mongodb.repository.GameRepository;
+
+/**
+ * Active games held in memory as an immutable snapshot, with lookup maps by
+ * id, category and developer, a {@link SearchIndex} over their text and a
+ * {@link FacetIndex} for combined filters.
+ *
+ * The snapshot is loaded on first use and replaced wholesale on every write
+ * that goes through {@link #onSaved(Game)}, on {@link #refresh()} and on a
+ * fixed schedule (to pick up writes made by other instances). Readers never
+ * lock and always see one consistent version. Games handed out belong to the
+ * snapshot and must not be modified.
+ *
+ * Every game id seen is also given a dense ordinal that never changes or gets
+ * reused, so per-user sets of games can be kept as bitsets
+ * ({@link OwnershipIndex}) that outlive snapshots.
+ */
+@Component
+public class GameCatalog {
+  private static final Logger logger = LoggerFactory.getLogger(GameCatalog.class);
+
+  private final GameRepository gameRepository;
+  private final AtomicReference<Snapshot> current = new AtomicReference<>();
+  private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+  private volatile String[] idsByOrdinal = new String[256];
+  private int nextOrdinal; // guarded by ordinals
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder rebuilds = new LongAdder();
+  private final LongAdder searches = new LongAdder();
+  private final AtomicLong lastRebuildMicros = new AtomicLong();
+
+  @Autowired
+  public GameCatalog(GameRepository gameRepository) {
+    this.gameRepository = gameRepository;
+  }
+
+  public List<Game> activeGames() {
+    hits.increment();
+    return snapshot().games;
+  }
+
+  /**
+   * Up to {@code size} active games in id order after {@code afterId}
+   * ({@code null} for the first page); a binary search, whatever the depth.
+   */
+  public List<Game> page(String afterId, int size) {
+    hits.increment();
+    List<Game> ordered = snapshot().byIdOrder;
+    int lo = 0;
+    int hi = ordered.size();
+    if (afterId != null) {
+      while (lo < hi) {
+        int mid = (lo + hi) >>> 1;
+        if (ordered.get(mid).getId().compareTo(afterId) <= 0) lo = mid + 1;
+        else hi = mid;
+      }
+    }
+    return ordered.subList(lo, Math.min(lo + size, ordered.size()));
+  }
+
+  /**
+   * A game by id. Inactive games are not in the snapshot, so a miss falls
+   * back to Mongo.
+   */
+  public Optional<Game> byId(String id) {
+    Game game = snapshot().byId.get(id);
+    if (game != null) {
+      hits.increment();
+      return Optional.of(game);
+    }
+    misses.increment();
+    return gameRepository.findById(id);
+  }
+
+  /**
+   * The games with the given ids that exist, keyed by id. Ids missing from
+   * the snapshot are looked up in Mongo with a single {@code $in} query.
+   */
+  public Map<String, Game> byIds(Collection<String> ids) {
+    Snapshot s = snapshot();
+    Map<String, Game> found = new LinkedHashMap<>();
+    List<String> missing = new ArrayList<>();
+    for (String id : ids) {
+      Game game = s.byId.get(id);
+      if (game != null) found.put(id, game);
+      else missing.add(id);
+    }
+    hits.add(found.size());
+    if (!missing.isEmpty()) {
+      misses.add(missing.size());
+      gameRepository.findAllById(missing).forEach(g -> found.put(g.getId(), g));
+    }
+    return found;
+  }
+
+  public List<Game> byCategory(String category) {
+    hits.increment();
+    return snapshot().byCategory.getOrDefault(category, List.of());
+  }
+
+  public List<Game> byDeveloper(String developer) {
+    hits.increment();
+    return snapshot().byDeveloper.getOrDefault(developer, List.of());
+  }
+
+  /** Games priced between {@code min} and {@code max}, both inclusive. */
+  public List<Game> byPriceRange(BigDecimal min, BigDecimal max) {
+    hits.increment();
+    return snapshot().facets.inPriceRange(min, max);
+  }
+
+  /** Games whose title, tags, developer, publisher or description match every token of {@code query}. */
+  public List<Game> search(String query, int limit) {
+    hits.increment();
+    searches.increment();
+    return snapshot().search.search(query, limit);
+  }
+
+  /** Runs a combined filter with facet counts. */
+  public GameQueryResult query(GameQuery query) {
+    return run(snapshot(), query, null);
+  }
+
+  /**
+   * As {@link #query(GameQuery)}, also keeping only games whose ordinal is
+   * in {@code library} or, if {@code owned} is {@code false}, only games
+   * whose ordinal is not. A {@code null} library applies no such filter.
+   */
+  public GameQueryResult query(GameQuery query, BitSet library, boolean owned) {
+    Snapshot s = snapshot();
+    if (library == null) return run(s, query, null);
+    BitSet positions = new BitSet(s.ordinals.length);
+    for (int i = 0; i < s.ordinals.length; i++) {
+      if (library.get(s.ordinals[i]) == owned) positions.set(i);
+    }
+    return run(s, query, positions);
+  }
+
+  private GameQueryResult run(Snapshot s, GameQuery query, BitSet positions) {
+    hits.increment();
+    if (query.hasText()) searches.increment();
+    return s.facets.run(query, s.search, positions);
+  }
+
+  /** The ordinal of {@code gameId}, assigning the next one on first sight. */
+  public int ordinal(String gameId) {
+    Integer ordinal = ordinals.get(gameId);
+    if (ordinal != null) return ordinal;
+    synchronized (ordinals) {
+      ordinal = ordinals.get(gameId);
+      if (ordinal != null) return ordinal;
+      int next = nextOrdinal++;
+      String[] ids = idsByOrdinal;
+      if (next == ids.length) ids = Arrays.copyOf(ids, ids.length * 2);
+      ids[next] = gameId;
+      idsByOrdinal = ids;
+      ordinals.put(gameId, next);
+      return next;
+    }
+  }
+
+  /** The game id behind an ordinal handed out by {@link #ordinal(String)}. */
+  public String gameId(int ordinal) {
+    return idsByOrdinal[ordinal];
+  }
+
+  /**
+   * Swaps in a snapshot with {@code game} added, replaced or (if inactive)
+   * removed. Call after the game has been saved.
+   */
+  public synchronized void onSaved(Game game) {
+    Snapshot s = current.get();
+    if (s == null) return; // not loaded yet; the first read will see the game
+    long start = System.nanoTime();
+    current.set(s.with(game, this::ordinal));
+    rebuilt(start);
+  }
+
+  /** Reloads every active game from Mongo. */
+  public synchronized Stats refresh() {
+    long start = System.nanoTime();
+    Snapshot s = new Snapshot(gameRepository.findByIsActiveTrue(), this::ordinal);
+    current.set(s);
+    rebuilt(start);
+    logger.debug("Reloaded game catalog: {} active games", s.games.size());
+    return stats();
+  }
+
+  @Scheduled(fixedDelayString = "${store.catalog.refresh-ms:300000}", initialDelayString = "${store.catalog.refresh-ms:300000}")
+  public void scheduledRefresh() {
+    try {
+      refresh();
+    } catch (RuntimeException e) {
+      logger.warn("Could not reload game catalog: {}", e.getMessage());
+    }
+  }
+
+  public Stats stats() {
+    Snapshot s = current.get();
+    return new Stats(s == null ? 0 : s.games.size(), s == null ? 0 : s.search.terms(), hits.sum(), misses.sum(),
+        searches.sum(), rebuilds.sum(), lastRebuildMicros.get() / 1000.0);
+  }
+
+  Snapshot snapshot() {
+    Snapshot s = current.get();
+    if (s != null) return s;
+    synchronized (this) {
+      if (current.get() == null) {
+        refresh();
+      }
+      return current.get();
+    }
+  }
+
+  private void rebuilt(long start) {
+    rebuilds.increment();
+    lastRebuildMicros.set((System.nanoTime() - start) / 1000);
+  }
+
+  static final class Snapshot {
+    final List<Game> games;
+    final Map<String, Game> byId;
+    final List<Game> byIdOrder;
+    final Map<String, List<Game>> byCategory;
+    final Map<String, List<Game>> byDeveloper;
+    final SearchIndex search;
+    final FacetIndex facets;
+    /** Catalog ordinal of the game at each position of {@link #games}. */
+    final int[] ordinals;
+
+    Snapshot(List<Game> active, ToIntFunction<String> ordinal) {
+      Map<String, Game> ids = new LinkedHashMap<>();
+      for (Game g : active) {
+        if (g.isActive()) ids.put(g.getId(), g);
+      }
+      this.games = List.copyOf(ids.values());
+      this.byId = Collections.unmodifiableMap(ids);
+      List<Game> sorted = new ArrayList<>(games);
+      sorted.sort(Comparator.comparing(Game::getId));
+      this.byIdOrder = List.copyOf(sorted);
+      this.byCategory = group(games, Game::getCategory);
+      this.byDeveloper = group(games, Game::getDeveloper);
+      this.search = new SearchIndex(games);
+      this.facets = new FacetIndex(games);
+      this.ordinals = games.stream().mapToInt(g -> ordinal.applyAsInt(g.getId())).toArray();
+    }
+
+    Snapshot with(Game game, ToIntFunction<String> ordinal) {
+      List<Game> next = new ArrayList<>(games.size() + 1);
+      boolean replaced = false;
+      for (Game g : games) {
+        if (g.getId().equals(game.getId())) {
+          replaced = true;
+          if (game.isActive()) next.add(game);
+        } else {
+          next.add(g);
+        }
+      }
+      if (!replaced && game.isActive()) next.add(game);
+      return new Snapshot(next, ordinal);
+    }
+
+    private static Map<String, List<Game>> group(List<Game> games, Function<Game, String> key) {
+      Map<String, List<Game>> groups = new HashMap<>();
+      for (Game g : games) {
+        String k = key.apply(g);
+        if (k != null) groups.computeIfAbsent(k, x -> new ArrayList<>()).add(g);
+      }
+      groups.replaceAll((k, v) -> List.copyOf(v));
+      return Collections.unmodifiableMap(groups);
+    }
+  }
+
+  public static class Stats {
+    public final int games;
+    public final int searchTerms;
+    public final long hits;
+    public final long misses;
+    public final long searches;
+    public final long rebuilds;
+    public final double lastRebuildMs;
+
+    public Stats(int games, int searchTerms, long hits, long misses, long searches, long rebuilds,
+                 double lastRebuildMs) {
+      this.games = games;
+      this.searchTerms = searchTerms;
+      this.hits = hits;
+      this.misses = misses;
+      this.searches = searches;
+      this.rebuilds = rebuilds;
+      this.lastRebuildMs = lastRebuildMs;
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.bezkoder.spring.security.mongodb.service.store;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.bezkoder.spring.security.mongodb.domain.store.Game;
+
+/**
+ * A sparse fieldset for game lists: {@code fields=id,title,price} returns
+ * only those properties of each game, under the same JSON names as the full
+ * document.
+ */
+public final class GameFields {
+  private static final Map<String, Function<Game, Object>> ACCESSORS = new LinkedHashMap<>();
+
+  static {
+    ACCESSORS.put("id", Game::getId);
+    ACCESSORS.put("title", Game::getTitle);
+    ACCESSORS.put("description", Game::getDescription);
+    ACCESSORS.put("developer", Game::getDeveloper);
+    ACCESSORS.put("publisher", Game::getPublisher);
+    ACCESSORS.put("price", Game::getPrice);
+    ACCESSORS.put("category", Game::getCategory);
+    ACCESSORS.put("tags", Game::getTags);
+    ACCESSORS.put("imageUrl", Game::getImageUrl);
+    ACCESSORS.put("rating", Game::getRating);
+    ACCESSORS.put("reviewCount", Game::getReviewCount);
+    ACCESSORS.put("active", Game::isActive);
+    ACCESSORS.put("createdAt", Game::getCreatedAt);
+    ACCESSORS.put("updatedAt", Game::getUpdatedAt);
+  }
+
+  private final String[] names;
+  private final List<Function<Game, Object>> getters;
+
+  private GameFields(String[] names, List<Function<Game, Object>> getters) {
+    this.names = names;
+    this.getters = getters;
+  }
+
+  /**
+   * Parses a comma-separated field list.
+   *
+   * @throws IllegalArgumentException on an unknown field
+   */
+  public static GameFields parse(String spec) {
+    List<String> names = new ArrayList<>();
+    List<Function<Game, Object>> getters = new ArrayList<>();
+    for (String raw : spec.split(",")) {
+      String name = raw.trim();
+      if (name.isEmpty() || names.contains(name)) continue;
+      Function<Game, Object> getter = ACCESSORS.get(name);
+      if (getter == null) {
+        throw new IllegalArgumentException("Unknown game field: " + name);
+      }
+      names.add(name);
+      getters.add(getter);
+    }
+    if (names.isEmpty()) {
+      throw new IllegalArgumentException("No game fields selected");
+    }
+    return new GameFields(names.toArray(new String[0]), getters);
+  }
+
+  public List<Map<String, Object>> project(List<Game> games) {
+    List<Map<String, Object>> out = new ArrayList<>(games.size());
+    for (Game g : games) {
+      Map<String, Object> row = new LinkedHashMap<>(names.length * 2);
+      for (int i = 0; i < names.length; i++) {
+        row.put(names[i], getters.get(i).apply(g));
+      }
+      out.add(row);
+    }
+    return out;
+  }
+}
@@ -0,0 +1,58 @@
+package com.bezkoder.spring.security.mongodb.service.store;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Combined catalog filter. Values within one dimension are alternatives
+ * (any listed category or developer), except tags, which must all be
+ * present. Dimensions are combined with AND; unset ones do not filter.
+ */
+public class GameQuery {
+  private List<String> categories = List.of();
+  private List<String> developers = List.of();
+  private List<String> tags = List.of();
+  private BigDecimal minPrice;
+  private BigDecimal maxPrice;
+  private Double minRating;
+  private String text;
+  private Order order;
+  private int page;
+  private int size = 20;
+
+  public enum Order {
+    CATALOG, RELEVANCE, PRICE_ASC, PRICE_DESC, RATING, TITLE;
+
+    /** Parses {@code price_asc}, {@code price-asc}, ...; {@code null} or blank means no explicit order. */
+    public static Order parse(String value) {
+      if (value == null || value.isBlank()) return null;
+      return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+  }
+
+  public List<String> getCategories() { return categories; }
+  public void setCategories(List<String> categories) { this.categories = categories == null ? List.of() : categories; }
+  public List<String> getDevelopers() { return developers; }
+  public void setDevelopers(List<String> developers) { this.developers = developers == null ? List.of() : developers; }
+  public List<String> getTags() { return tags; }
+  public void setTags(List<String> tags) { this.tags = tags == null ? List.of() : tags; }
+  public BigDecimal getMinPrice() { return minPrice; }
+  public void setMinPrice(BigDecimal minPrice) { this.minPrice = minPrice; }
+  public BigDecimal getMaxPrice() { return maxPrice; }
+  public void setMaxPrice(BigDecimal maxPrice) { this.maxPrice = maxPrice; }
+  public Double getMinRating() { return minRating; }
+  public void setMinRating(Double minRating) { this.minRating = minRating; }
+  public String getText() { return text; }
+  public void setText(String text) { this.text = text; }
+  public Order getOrder() { return order; }
+  public void setOrder(Order order) { this.order = order; }
+  public int getPage() { return page; }
+  public void setPage(int page) { this.page = Math.max(0, page); }
+  public int getSize() { return size; }
+  public void setSize(int size) { this.size = Math.max(1, Math.min(size, 100)); }
+
+  boolean hasText() {
+    return text != null && !text.isBlank();
+  }
+}
@@ -0,0 +1,33 @@
+package com.bezkoder.spring.security.mongodb.service.store;
+
+import java.util.List;
+import java.util.Map;
+
+import com.bezkoder.spring.security.mongodb.domain.store.Game;
+
+/**
+ * One page of a {@link GameQuery} with facet counts. Each dimension's counts
+ * apply every filter except that dimension's own, so they show how many games
+ * selecting a value there would give.
+ */
+public class GameQueryResult {
+  private final List<Game> games;
+  private final int total;
+  private final int page;
+  private final int size;
+  private final Map<String, Map<String, Integer>> facets;
+
+  public GameQueryResult(List<Game> games, int total, int page, int size, Map<String, Map<String, Integer>> facets) {
+    this.games = games;
+    this.total = total;
+    this.page = page;
+    this.size = size;
+    this.facets = facets;
+  }
+
+  public List<Game> getGames() { return games; }
+  public int getTotal() { return total; }
+  public int getPage() { return page; }
+  public int getSize() { return size; }
+  public Map<String, Map<String, Integer>> getFacets() { return facets; }
+}
@@ -0,0 +1,31 @@
+package com.bezkoder.spring.security.mongodb.service.store;
+
+import java.math.BigDecimal;
+
+import com.bezkoder.spring.security.mongodb.domain.store.Game;
+
+/** The fields a storefront tile needs; what {@code fields=summary} returns. */
+public class GameSummary {
+  private final String id;
+  private final String title;
+  private final BigDecimal price;
+  private final String imageUrl;
+  private final double rating;
+  private final String category;
+
+  public GameSummary(Game game) {
+    this.id = game.getId();
+    this.title = game.getTitle();
+    this.price = game.getPrice();
+    this.imageUrl = game.getImageUrl();
+    this.rating = game.getRating();
+    this.category = game.getCategory();
+  }
+
+  public String getId() { return id; }
+  public String getTitle() { return title; }
+  public BigDecimal getPrice() { return price; }
+  public String getImageUrl() { return imageUrl; }
+  public double getRating() { return rating; }
+  public String getCategory() { return category; }
+}
@@ -0,0 +1,56 @@
+package com.bezkoder.spring.security.mongodb.service.store;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.stereotype.Component;
+
+import com.bezkoder.spring.security.mongodb.domain.store.UserProfile;
+
+/**
+ * Converts wallet amounts written as strings (the default mapping for
+ * {@code BigDecimal}) to Decimal128 with {@code $toDecimal}, so conditional
+ * debits compare numbers. Runs once per start and is a no-op when nothing is
+ * left to convert; until it has run, purchases by unconverted users fail as
+ * if their balance were short.
+ */
+@Component
+public class MoneyFieldMigration {
+  private static final Logger logger = LoggerFactory.getLogger(MoneyFieldMigration.class);
+  private static final int BSON_STRING = 2;
+  private static final String[] FIELDS = { "walletBalance", "totalSpent" };
+
+  private final MongoTemplate mongoTemplate;
+
+  @Autowired
+  public MoneyFieldMigration(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void migrate() {
+    try {
+      for (String field : FIELDS) {
+        long converted = mongoTemplate.updateMulti(query(where(field).type(BSON_STRING)),
+            AggregationUpdate.update().set(field).toValue(ConvertOperators.valueOf(field).convertToDecimal()),
+            UserProfile.class).getModifiedCount();
+        if (converted > 0) {
+          logger.info("Converted user_profiles.{} to Decimal128 on {} documents", field, converted);
+        }
+      }
+    } catch (RuntimeException e) {
+      logger.warn("Could not convert wallet amounts to Decimal128: {}", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package com.bezkoder.spring.security.mongodb.service.store;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.bezkoder.spring.security.mongodb.domain.store.Purchase;
+
+/**
+ * The games each recently active user owns, as a bitset over
+ * {@link GameCatalog#ordinal(String) catalog ordinals}.
+ *
+ * A user's set is loaded on first use from {@code user_game_idx} (an
+ * index-only read of their game ids) and kept in an LRU of at most
+ * {@code store.ownership.max-users} users. Purchases made through this
+ * instance are added in place; a set is also loaded again once it is older
+ * than {@code store.ownership.ttl-ms}, which bounds how long a purchase made
+ * on another instance can be missing. Cached bitsets are never modified, so callers may read
+ * the one they are given without locking but must not change it.
+ */
+@Component
+public class OwnershipIndex {
+  private final MongoTemplate mongoTemplate;
+  private final GameCatalog catalog;
+  private final long ttlNanos;
+  private final Map<String, Entry> owned;
+  /** Bumped by every change, so a load that raced with one is not cached. */
+  private long version; // guarded by this
+
+  @Autowired
+  public OwnershipIndex(MongoTemplate mongoTemplate, GameCatalog catalog,
+                        @Value("${store.ownership.max-users:10000}") int maxUsers,
+                        @Value("${store.ownership.ttl-ms:60000}") long ttlMs) {
+    this.mongoTemplate = mongoTemplate;
+    this.catalog = catalog;
+    this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+    this.owned = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        return size() > maxUsers;
+      }
+    };
+  }
+
+  /** Ordinals of the games owned by {@code userId}. */
+  public BitSet owned(String userId) {
+    long seen;
+    synchronized (this) {
+      Entry entry = owned.get(userId);
+      if (entry != null && System.nanoTime() - entry.loadedAt < ttlNanos) return entry.bits;
+      seen = version;
+    }
+    long loadedAt = System.nanoTime();
+    BitSet bits = load(userId);
+    synchronized (this) {
+      if (version == seen) owned.put(userId, new Entry(bits, loadedAt));
+    }
+    return bits;
+  }
+
+  /** Records purchases already stored in Mongo. */
+  public synchronized void onPurchased(String userId, Collection<String> gameIds) {
+    version++;
+    Entry entry = owned.get(userId);
+    if (entry == null) return; // loaded with the purchases on next use
+    BitSet next = (BitSet) entry.bits.clone();
+    for (String gameId : gameIds) {
+      next.set(catalog.ordinal(gameId));
+    }
+    owned.put(userId, new Entry(next, entry.loadedAt));
+  }
+
+  private BitSet load(String userId) {
+    Query query = new Query(where("userId").is(userId)).withHint("user_game_idx");
+    query.fields().include("gameId").exclude("id");
+    BitSet bits = new BitSet();
+    for (Purchase purchase : mongoTemplate.find(query, Purchase.class)) {
+      bits.set(catalog.ordinal(purchase.getGameId()));
+    }
+    return bits;
+  }
+
+  private record Entry(BitSet bits, long loadedAt) {}
+}
@@ -0,0 +1,36 @@
+package com.bezkoder.spring.security.mongodb.service.store;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.regex.Pattern;
+
+/**
+ * Opaque keyset cursors: the sort key and id of the last item on a page,
+ * joined and base64url-encoded. Clients pass them back unchanged.
+ */
+public final class PageCursor {
+  private static final String SEPARATOR = "\u001f";
+  private static final Pattern SPLIT = Pattern.compile(SEPARATOR);
+
+  private PageCursor() {
+  }
+
+  public static String encode(String... parts) {
+    byte[] raw = String.join(SEPARATOR, parts).getBytes(StandardCharsets.UTF_8);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+  }
+
+  /**
+   * The {@code expected} parts of {@code cursor}.
+   *
+   * @throws IllegalArgumentException if the cursor is malformed
+   */
+  public static String[] decode(String cursor, int expected) {
+    String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    String[] parts = SPLIT.split(raw, -1);
+    if (parts.length != expected) {
+      throw new IllegalArgumentException("Malformed cursor");
+    }
+    return parts;
+  }
+}
@@ -0,0 +1,121 @@
+package com.bezkoder.spring.security.mongodb.service.store;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.bezkoder.spring.security.mongodb.domain.store.UserProfile;
+import com.bezkoder.spring.security.mongodb.repository.UserProfileRepository;
+
+/**
+ * Username to {@link ProfileKey} for the store, so operations that only need
+ * a user's id do not read the profile first.
+ *
+ * An LRU of at most {@code store.profiles.max-users} entries. Profiles written
+ * through {@code GameStoreService} are put or evicted as they change; an entry
+ * is also dropped after {@code store.profiles.ttl-ms}, which bounds how long a
+ * premium flag changed by another instance can be stale. Unknown usernames
+ * are not cached.
+ */
+@Component
+public class ProfileKeyCache {
+  private final UserProfileRepository userProfileRepository;
+  private final long ttlNanos;
+  private final Map<String, ProfileKey> keys;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  @Autowired
+  public ProfileKeyCache(UserProfileRepository userProfileRepository,
+                         @Value("${store.profiles.max-users:50000}") int maxUsers,
+                         @Value("${store.profiles.ttl-ms:60000}") long ttlMs) {
+    this.userProfileRepository = userProfileRepository;
+    this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+    this.keys = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, ProfileKey> eldest) {
+        return size() > maxUsers;
+      }
+    };
+  }
+
+  public Optional<ProfileKey> get(String username) {
+    synchronized (this) {
+      ProfileKey key = keys.get(username);
+      if (key != null && System.nanoTime() - key.loadedAt < ttlNanos) {
+        hits.increment();
+        return Optional.of(key);
+      }
+    }
+    misses.increment();
+    Optional<UserProfile> profile = userProfileRepository.findByUsername(username);
+    profile.ifPresentOrElse(this::put, () -> invalidate(username));
+    return profile.map(ProfileKey::new);
+  }
+
+  /** Caches the key of a profile just read or written. */
+  public void put(UserProfile profile) {
+    ProfileKey key = new ProfileKey(profile);
+    synchronized (this) {
+      keys.put(key.username, key);
+    }
+  }
+
+  public synchronized void invalidate(String username) {
+    keys.remove(username);
+  }
+
+  /** Drops {@code profile}'s entry under any username, for writes that may rename it. */
+  public synchronized void invalidate(UserProfile profile) {
+    keys.values().removeIf(key -> key.id.equals(profile.getId()));
+    keys.remove(profile.getUsername());
+  }
+
+  public Stats stats() {
+    int size;
+    synchronized (this) {
+      size = keys.size();
+    }
+    long h = hits.sum();
+    long m = misses.sum();
+    return new Stats(size, h, m, h + m == 0 ? 0 : (double) h / (h + m));
+  }
+
+  public static final class ProfileKey {
+    private final String id;
+    private final String username;
+    private final boolean premium;
+    private final long loadedAt = System.nanoTime();
+
+    ProfileKey(UserProfile profile) {
+      this.id = profile.getId();
+      this.username = profile.getUsername();
+      this.premium = profile.isPremiumMember();
+    }
+
+    public String getId() { return id; }
+    public String getUsername() { return username; }
+    public boolean isPremium() { return premium; }
+  }
+
+  public static class Stats {
+    public final int size;
+    public final long hits;
+    public final long misses;
+    public final double hitRatio;
+
+    public Stats(int size, long hits, long misses, double hitRatio) {
+      this.size = size;
+      this.hits = hits;
+      this.misses = misses;
+      this.hitRatio = hitRatio;
+    }
+  }
+}
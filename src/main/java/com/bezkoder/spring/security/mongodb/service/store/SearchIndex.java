@@ -0,0 +1,188 @@
+package com.bezkoder.spring.security.mongodb.service.store;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import com.bezkoder.spring.security.mongodb.domain.store.Game;
+
+/**
+ * Inverted index over the text of a fixed list of games.
+ *
+ * Title, tags, developer, publisher and description are normalised (accents
+ * stripped, lower case) and split into tokens; every prefix of every token is
+ * indexed, so a query is a handful of map lookups. Each posting carries the
+ * best weight the term reached in that game: fields have different weights
+ * and a prefix counts less than a whole token. A game matches when every
+ * query token is a prefix of one of its tokens.
+ *
+ * Instances are immutable and built once per catalog snapshot.
+ */
+final class SearchIndex {
+  private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+  private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+  private static final int MAX_PREFIX = 20;
+  private static final float PREFIX_FACTOR = 0.6f;
+
+  private static final float TITLE = 5f;
+  private static final float TAG = 3f;
+  private static final float DEVELOPER = 2f;
+  private static final float PUBLISHER = 1.5f;
+  private static final float DESCRIPTION = 1f;
+
+  private final List<Game> games;
+  private final Map<String, Postings> postings;
+
+  SearchIndex(List<Game> games) {
+    this.games = games;
+    Map<String, Map<Integer, Float>> building = new HashMap<>();
+    for (int doc = 0; doc < games.size(); doc++) {
+      Game g = games.get(doc);
+      index(building, doc, g.getTitle(), TITLE);
+      if (g.getTags() != null) {
+        for (String tag : g.getTags()) {
+          index(building, doc, tag, TAG);
+        }
+      }
+      index(building, doc, g.getDeveloper(), DEVELOPER);
+      index(building, doc, g.getPublisher(), PUBLISHER);
+      index(building, doc, g.getDescription(), DESCRIPTION);
+    }
+    this.postings = new HashMap<>(building.size() * 2);
+    building.forEach((term, docs) -> postings.put(term, new Postings(docs)));
+  }
+
+  /** The best {@code limit} games matching {@code query}, highest score first. */
+  List<Game> search(String query, int limit) {
+    Matches m = match(query);
+    if (m == null || limit <= 0) return List.of();
+    List<Hit> hits = new ArrayList<>(m.size);
+    for (int i = 0; i < m.size; i++) {
+      hits.add(new Hit(games.get(m.docs[i]), m.scores[i]));
+    }
+    hits.sort(Hit.ORDER);
+    List<Game> result = new ArrayList<>(Math.min(limit, hits.size()));
+    for (int i = 0; i < hits.size() && i < limit; i++) {
+      result.add(hits.get(i).game);
+    }
+    return result;
+  }
+
+  /**
+   * Positions (in the indexed list) and scores of the games matching
+   * {@code query}, in position order; {@code null} if the query has no tokens.
+   */
+  Matches match(String query) {
+    List<String> tokens = tokens(query);
+    if (tokens.isEmpty()) return null;
+
+    // Intersect from the rarest term so the candidate set only shrinks.
+    Postings[] lists = new Postings[tokens.size()];
+    for (int i = 0; i < lists.length; i++) {
+      String t = tokens.get(i);
+      lists[i] = postings.get(t.length() > MAX_PREFIX ? t.substring(0, MAX_PREFIX) : t);
+      if (lists[i] == null) return new Matches(new int[0], new float[0], 0);
+    }
+    Arrays.sort(lists, (a, b) -> Integer.compare(a.docs.length, b.docs.length));
+
+    int[] docs = lists[0].docs.clone();
+    float[] scores = lists[0].weights.clone();
+    int n = docs.length;
+    for (int i = 1; i < lists.length && n > 0; i++) {
+      n = intersect(docs, scores, n, lists[i]);
+    }
+    return new Matches(docs, scores, n);
+  }
+
+  int terms() {
+    return postings.size();
+  }
+
+  /** Lower-cased, accent-free tokens of {@code text}. */
+  static List<String> tokens(String text) {
+    if (text == null || text.isBlank()) return List.of();
+    String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+    List<String> out = new ArrayList<>();
+    for (String t : SEPARATORS.split(folded.toLowerCase(Locale.ROOT))) {
+      if (!t.isEmpty()) out.add(t);
+    }
+    return out;
+  }
+
+  private static void index(Map<String, Map<Integer, Float>> building, int doc, String text, float weight) {
+    for (String token : tokens(text)) {
+      int longest = Math.min(token.length(), MAX_PREFIX);
+      for (int len = 1; len <= longest; len++) {
+        float w = len == token.length() ? weight : weight * PREFIX_FACTOR;
+        building.computeIfAbsent(token.substring(0, len), k -> new HashMap<>())
+            .merge(doc, w, Math::max);
+      }
+    }
+  }
+
+  /** Keeps the first {@code n} docs that also appear in {@code other}, adding its weights. */
+  private static int intersect(int[] docs, float[] scores, int n, Postings other) {
+    int kept = 0;
+    int j = 0;
+    for (int i = 0; i < n && j < other.docs.length; i++) {
+      while (j < other.docs.length && other.docs[j] < docs[i]) j++;
+      if (j < other.docs.length && other.docs[j] == docs[i]) {
+        docs[kept] = docs[i];
+        scores[kept] = scores[i] + other.weights[j];
+        kept++;
+      }
+    }
+    return kept;
+  }
+
+  private static final class Postings {
+    final int[] docs;
+    final float[] weights;
+
+    Postings(Map<Integer, Float> byDoc) {
+      docs = new int[byDoc.size()];
+      int i = 0;
+      for (int doc : byDoc.keySet()) {
+        docs[i++] = doc;
+      }
+      Arrays.sort(docs);
+      weights = new float[docs.length];
+      for (i = 0; i < docs.length; i++) {
+        weights[i] = byDoc.get(docs[i]);
+      }
+    }
+  }
+
+  static final class Matches {
+    final int[] docs;
+    final float[] scores;
+    final int size;
+
+    Matches(int[] docs, float[] scores, int size) {
+      this.docs = docs;
+      this.scores = scores;
+      this.size = size;
+    }
+  }
+
+  static final class Hit {
+    static final Comparator<Hit> ORDER = Comparator
+        .comparingDouble((Hit h) -> -h.score)
+        .thenComparingDouble(h -> -h.game.getRating())
+        .thenComparing(h -> h.game.getTitle(), Comparator.nullsLast(String::compareTo));
+
+    final Game game;
+    final float score;
+
+    Hit(Game game, float score) {
+      this.game = game;
+      this.score = score;
+    }
+  }
+}
@@ -0,0 +1,345 @@
+package com.bezkoder.spring.security.mongodb.service.store;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.project;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.bezkoder.spring.security.mongodb.domain.store.Purchase;
+import com.bezkoder.spring.security.mongodb.domain.store.StoreCounter;
+import com.bezkoder.spring.security.mongodb.domain.store.Subscription;
+import com.mongodb.bulk.BulkWriteError;
+
+/**
+ * Store totals kept up to date as purchases and subscriptions change, so
+ * dashboards read counters instead of counting collections.
+ *
+ * Changes are added to a {@link LongAdder} per counter and flushed every
+ * {@code store.counters.flush-ms} as one bulk {@code $inc} into
+ * {@code store_counters}; each flush also reloads every counter, which is
+ * how increments made by other instances arrive. A read is the last loaded
+ * value plus what this instance has not flushed yet.
+ *
+ * A reconcile job recounts everything from {@code purchases} and
+ * {@code subscriptions} and resets counters that drifted (a flush retried
+ * after a write whose outcome was unknown, writes made outside the store service). A change
+ * made while the recount runs may be in the recount and, on whichever
+ * instance made it, still waiting to be flushed, so the stored counters are
+ * read before the recount and again once every instance has flushed since
+ * it ended; counters whose stored value moved in between are left for the
+ * next pass. Each reset is a compare-and-set on the value read first.
+ */
+@Component
+public class StoreCounters {
+  private static final Logger logger = LoggerFactory.getLogger(StoreCounters.class);
+
+  public static final String PURCHASES_BY_STATUS = "purchases.status.";
+  public static final String PURCHASES_BY_GAME = "purchases.game.";
+  public static final String PURCHASES_BY_DAY = "purchases.day.";
+  public static final String ACTIVE_SUBSCRIPTIONS = "subscriptions.active";
+  public static final String ACTIVE_BY_TYPE = "subscriptions.type.";
+  public static final String SUBSCRIPTIONS_BY_DAY = "subscriptions.day.";
+
+  private static final String COMPLETED = "COMPLETED";
+  private static final String DAY_FORMAT = "%Y-%m-%d";
+
+  private final MongoTemplate mongoTemplate;
+  /** How long after a recount every instance is known to have flushed what it counted. */
+  private final long fenceMs;
+  private final AtomicBoolean reconciling = new AtomicBoolean();
+  private final Map<String, LongAdder> pending = new ConcurrentHashMap<>();
+  private volatile Map<String, Long> totals = Map.of();
+  /** Subscription types with an {@link #ACTIVE_BY_TYPE} counter, so listing them does not scan every counter. */
+  private final Set<String> types = ConcurrentHashMap.newKeySet();
+
+  private final LongAdder flushes = new LongAdder();
+  private final LongAdder corrections = new LongAdder();
+
+  @Autowired
+  public StoreCounters(MongoTemplate mongoTemplate, @Value("${store.counters.flush-ms:5000}") long flushMs) {
+    this.mongoTemplate = mongoTemplate;
+    this.fenceMs = 2 * flushMs;
+  }
+
+  public void purchased(Purchase purchase) {
+    add(PURCHASES_BY_STATUS + purchase.getStatus(), 1);
+    add(PURCHASES_BY_GAME + purchase.getGameId(), 1);
+    add(PURCHASES_BY_DAY + purchase.getPurchaseDate().toLocalDate(), 1);
+  }
+
+  public void subscribed(Subscription subscription) {
+    add(ACTIVE_SUBSCRIPTIONS, 1);
+    types.add(subscription.getSubscriptionType());
+    add(ACTIVE_BY_TYPE + subscription.getSubscriptionType(), 1);
+    add(SUBSCRIPTIONS_BY_DAY + subscription.getStartDate().toLocalDate(), 1);
+  }
+
+  /** A subscription stopped being active (cancelled or expired). */
+  public void unsubscribed(String subscriptionType) {
+    add(ACTIVE_SUBSCRIPTIONS, -1);
+    types.add(subscriptionType);
+    add(ACTIVE_BY_TYPE + subscriptionType, -1);
+  }
+
+  public long get(String counter) {
+    long value = totals.getOrDefault(counter, 0L);
+    LongAdder delta = pending.get(counter);
+    return delta == null ? value : value + delta.sum();
+  }
+
+  public long completedPurchases() {
+    return get(PURCHASES_BY_STATUS + COMPLETED);
+  }
+
+  public long purchasesOn(LocalDate day) {
+    return get(PURCHASES_BY_DAY + day);
+  }
+
+  /** Active subscriptions per type, reading one counter per known type. */
+  public Map<String, Long> activeByType() {
+    Map<String, Long> byType = new HashMap<>();
+    for (String type : types) {
+      byType.put(type, get(ACTIVE_BY_TYPE + type));
+    }
+    return byType;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void init() {
+    try {
+      totals = load();
+      boolean empty = totals.isEmpty();
+      if (empty && (mongoTemplate.exists(new Query(), Purchase.class)
+          || mongoTemplate.exists(new Query(), Subscription.class))) {
+        Thread backfill = new Thread(this::reconcile, "store-counters-backfill");
+        backfill.setDaemon(true);
+        backfill.start();
+      }
+    } catch (RuntimeException e) {
+      logger.warn("Could not load store counters: {}", e.getMessage());
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${store.counters.flush-ms:5000}", initialDelayString = "${store.counters.flush-ms:5000}")
+  public void scheduledFlush() {
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      logger.warn("Could not flush store counters: {}", e.getMessage());
+    }
+  }
+
+  @EventListener(ContextClosedEvent.class)
+  public void onShutdown() {
+    scheduledFlush();
+  }
+
+  /**
+   * Writes unflushed changes and reloads every counter. If some of the
+   * writes fail, the others are still taken off {@code pending} before the
+   * failure is rethrown, so only the failed ones are sent again.
+   */
+  public synchronized void flush() {
+    Map<String, Long> deltas = new HashMap<>();
+    pending.forEach((counter, delta) -> {
+      long d = delta.sum();
+      if (d != 0) deltas.put(counter, d);
+    });
+    BulkOperationException partial = null;
+    if (!deltas.isEmpty()) {
+      LocalDateTime now = LocalDateTime.now();
+      List<String> order = new ArrayList<>(deltas.keySet());
+      BulkOperations ops = mongoTemplate.bulkOps(BulkMode.UNORDERED, StoreCounter.class);
+      for (String counter : order) {
+        ops.upsert(query(where("id").is(counter)), new Update().inc("value", deltas.get(counter)).set("updatedAt", now));
+      }
+      try {
+        ops.execute();
+        flushes.increment();
+      } catch (BulkOperationException e) {
+        // Unordered: every write other than the failed ones was applied.
+        for (BulkWriteError error : e.getErrors()) {
+          deltas.remove(order.get(error.getIndex()));
+        }
+        partial = e;
+      }
+    }
+    Map<String, Long> loaded = load();
+    deltas.forEach((counter, d) -> pending.get(counter).add(-d));
+    totals = loaded;
+    if (partial != null) {
+      throw partial;
+    }
+  }
+
+  /** Recounts every counter from the source collections and corrects the ones that drifted. */
+  @Scheduled(cron = "${store.counters.reconcile-cron:0 15 3 * * *}")
+  public void reconcile() {
+    if (!reconciling.compareAndSet(false, true)) return;
+    try {
+      flush();
+      long start = System.nanoTime();
+      Map<String, Long> before = load();
+      Map<String, Long> expected = recount();
+      Thread.sleep(fenceMs);
+      Map<String, Long> after = load();
+      Map<String, Long> drifted = corrections(expected, before, after);
+
+      LocalDateTime now = LocalDateTime.now();
+      BulkOperations ops = mongoTemplate.bulkOps(BulkMode.UNORDERED, StoreCounter.class);
+      drifted.forEach((counter, want) -> {
+        Long have = before.get(counter);
+        if (have == null) {
+          ops.upsert(query(where("id").is(counter)),
+              new Update().setOnInsert("value", want).setOnInsert("updatedAt", now));
+        } else {
+          ops.updateOne(query(where("id").is(counter).and("value").is(have)),
+              new Update().set("value", want).set("updatedAt", now));
+        }
+      });
+      if (!drifted.isEmpty()) {
+        ops.execute();
+        corrections.add(drifted.size());
+      }
+      synchronized (this) {
+        totals = load();
+      }
+      logger.info("Reconciled {} store counters, {} corrected ({} ms)", expected.size(), drifted.size(),
+          (System.nanoTime() - start) / 1_000_000);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (RuntimeException e) {
+      logger.warn("Could not reconcile store counters: {}", e.getMessage());
+    } finally {
+      reconciling.set(false);
+    }
+  }
+
+  /**
+   * Counters to reset, with the value each should have: those whose stored
+   * value differs from the recount and did not move between {@code before}
+   * and {@code after}. A counter that moved may have been flushed with a
+   * change the recount already saw, so it is left for the next pass.
+   */
+  static Map<String, Long> corrections(Map<String, Long> expected, Map<String, Long> before,
+                                       Map<String, Long> after) {
+    Set<String> counters = new HashSet<>(expected.keySet());
+    counters.addAll(before.keySet());
+    Map<String, Long> drifted = new HashMap<>();
+    for (String counter : counters) {
+      Long have = before.get(counter);
+      if (!Objects.equals(have, after.get(counter))) continue;
+      long want = expected.getOrDefault(counter, 0L);
+      if (have == null ? want != 0 : have != want) {
+        drifted.put(counter, want);
+      }
+    }
+    return drifted;
+  }
+
+  public Stats stats() {
+    return new Stats(totals.size(), flushes.sum(), corrections.sum());
+  }
+
+  private void add(String counter, long delta) {
+    pending.computeIfAbsent(counter, c -> new LongAdder()).add(delta);
+  }
+
+  private Map<String, Long> load() {
+    Map<String, Long> loaded = new HashMap<>();
+    for (StoreCounter counter : mongoTemplate.findAll(StoreCounter.class)) {
+      loaded.put(counter.getId(), counter.getValue());
+      if (counter.getId().startsWith(ACTIVE_BY_TYPE)) {
+        types.add(counter.getId().substring(ACTIVE_BY_TYPE.length()));
+      }
+    }
+    return loaded;
+  }
+
+  private Map<String, Long> recount() {
+    Map<String, Long> counts = new HashMap<>();
+    Criteria completed = where("status").is(COMPLETED);
+    count(counts, PURCHASES_BY_STATUS, newAggregation(group("status").count().as("count")), Purchase.class);
+    count(counts, PURCHASES_BY_GAME,
+        newAggregation(match(completed), group("gameId").count().as("count")), Purchase.class);
+    count(counts, PURCHASES_BY_DAY,
+        newAggregation(match(completed), project().and(day("purchaseDate")).as("day"),
+            group("day").count().as("count")), Purchase.class);
+
+    Criteria active = where("isActive").is(true);
+    count(counts, ACTIVE_BY_TYPE,
+        newAggregation(match(active), group("subscriptionType").count().as("count")), Subscription.class);
+    count(counts, SUBSCRIPTIONS_BY_DAY,
+        newAggregation(project().and(day("startDate")).as("day"), group("day").count().as("count")),
+        Subscription.class);
+    counts.put(ACTIVE_SUBSCRIPTIONS, counts.entrySet().stream()
+        .filter(e -> e.getKey().startsWith(ACTIVE_BY_TYPE))
+        .mapToLong(Map.Entry::getValue)
+        .sum());
+    return counts;
+  }
+
+  /** Calendar day of a date field in this server's zone, as {@code purchased()} and {@code subscribed()} use. */
+  private static DateOperators.DateToString day(String field) {
+    return DateOperators.dateOf(field)
+        .withTimezone(DateOperators.Timezone.valueOf(ZoneId.systemDefault().getId()))
+        .toString(DAY_FORMAT);
+  }
+
+  private void count(Map<String, Long> counts, String prefix, Aggregation aggregation, Class<?> source) {
+    for (Document row : mongoTemplate.aggregate(aggregation, source, Document.class)) {
+      Object key = row.get("_id");
+      if (key != null) {
+        counts.merge(prefix + key, ((Number) row.get("count")).longValue(), Long::sum);
+      }
+    }
+  }
+
+  public static class Stats {
+    public final int counters;
+    public final long flushes;
+    public final long corrections;
+
+    public Stats(int counters, long flushes, long corrections) {
+      this.counters = counters;
+      this.flushes = flushes;
+      this.corrections = corrections;
+    }
+  }
+}
@@ -0,0 +1,433 @@
+package com.bezkoder.spring.security.mongodb.service.store;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.bezkoder.spring.security.mongodb.domain.store.BillingCheckpoint;
+import com.bezkoder.spring.security.mongodb.domain.store.Subscription;
+import com.bezkoder.spring.security.mongodb.repository.UserProfileRepository;
+
+/**
+ * Renews active subscriptions whose {@code nextBillingDate} has passed and
+ * expires those the wallet cannot pay for.
+ *
+ * A run fixes a cutoff and streams the due subscriptions in
+ * {@code (nextBillingDate, _id)} order off {@code active_billing_idx},
+ * {@code store.billing.chunk-size} at a time, so memory stays at one chunk.
+ * For each chunk it claims the subscriptions (stamping {@code billingRun}),
+ * charges the wallets with conditional updates on a pool of
+ * {@code store.billing.workers} threads, and settles the chunk with one bulk
+ * write: paid subscriptions move on by whole months until they are past the
+ * cutoff (missed months are not charged), unpaid ones are marked EXPIRED and
+ * their users lose the premium flag. A wallet that could not be reached
+ * leaves its subscription for the next run. Settlement only applies to
+ * subscriptions still active; one cancelled after it was charged gets the
+ * charge back.
+ *
+ * Only the instance holding the lease in {@link BillingCheckpoint} bills.
+ * After every chunk the checkpoint records the last subscription settled and
+ * extends the lease; a run that stops early is resumed by the next one with
+ * the same cutoff. Subscriptions still claimed by the interrupted run are
+ * billed again first: each charge is recorded on the wallet under
+ * {@code runId:subscriptionId}, so one already taken is not repeated and one
+ * that never happened is taken now.
+ */
+@Component
+public class SubscriptionBilling {
+  private static final Logger logger = LoggerFactory.getLogger(SubscriptionBilling.class);
+  private static final String JOB = "subscriptions";
+
+  private final MongoTemplate mongoTemplate;
+  private final UserProfileRepository userProfileRepository;
+  private final ProfileKeyCache profiles;
+  private final StoreCounters counters;
+  private final int chunkSize;
+  private final int workers;
+  private final Duration lease;
+  private final String instanceId = new ObjectId().toHexString();
+
+  private final AtomicBoolean running = new AtomicBoolean();
+  private final AtomicReference<Run> lastRun = new AtomicReference<>();
+
+  @Autowired
+  public SubscriptionBilling(MongoTemplate mongoTemplate, UserProfileRepository userProfileRepository,
+                             ProfileKeyCache profiles, StoreCounters counters,
+                             @Value("${store.billing.chunk-size:500}") int chunkSize,
+                             @Value("${store.billing.workers:8}") int workers,
+                             @Value("${store.billing.lease-ms:300000}") long leaseMs) {
+    this.mongoTemplate = mongoTemplate;
+    this.userProfileRepository = userProfileRepository;
+    this.profiles = profiles;
+    this.counters = counters;
+    this.chunkSize = Math.max(1, chunkSize);
+    this.workers = Math.max(1, workers);
+    this.lease = Duration.ofMillis(leaseMs);
+  }
+
+  @Scheduled(fixedDelayString = "${store.billing.interval-ms:3600000}",
+             initialDelayString = "${store.billing.initial-delay-ms:60000}")
+  public void scheduledRun() {
+    try {
+      run();
+    } catch (RuntimeException e) {
+      logger.warn("Subscription billing stopped: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Bills everything due, or resumes an unfinished run. Returns {@code null}
+   * if a run is already going here or another instance holds the lease.
+   */
+  public Run run() {
+    if (!running.compareAndSet(false, true)) {
+      return null;
+    }
+    ExecutorService pool = null;
+    try {
+      BillingCheckpoint checkpoint = acquire();
+      if (checkpoint == null) {
+        return null;
+      }
+      boolean resumed = checkpoint.getRunId() != null && !checkpoint.isFinished();
+      Run run = resumed ? new Run(checkpoint.getRunId(), checkpoint.getCutoff(), true) : start();
+      Query dueQuery = resumed
+          ? dueQuery(run, checkpoint.getLastBillingDate(), checkpoint.getLastSubscriptionId())
+          : dueQuery(run, null, null);
+
+      pool = Executors.newFixedThreadPool(workers, r -> new Thread(r, "store-billing"));
+      if (resumed) {
+        run.recovered = settleClaimed(run, pool);
+      }
+      boolean leased = true;
+      try (Stream<Subscription> due = mongoTemplate.stream(dueQuery, Subscription.class)) {
+        Iterator<Subscription> it = due.iterator();
+        List<Subscription> chunk = new ArrayList<>(chunkSize);
+        while (leased && it.hasNext()) {
+          chunk.add(it.next());
+          if (chunk.size() == chunkSize || !it.hasNext()) {
+            Run before = run.copy();
+            bill(run, chunk, pool);
+            leased = checkpoint(run, before, chunk.get(chunk.size() - 1));
+            chunk.clear();
+          }
+        }
+      }
+      if (!leased) {
+        logger.warn("Subscription billing run {} lost its lease after {} subscriptions", run.runId, run.scanned);
+        return run;
+      }
+      finish(run);
+      lastRun.set(run);
+      logger.info("Subscription billing run {}: {} due, {} renewed, {} expired, {} failed, {} recovered, "
+          + "{} refunded in {} ms ({} per second){}", run.runId, run.scanned, run.renewed, run.expired, run.failed,
+          run.recovered, run.refunded, run.elapsedMs, Math.round(run.perSecond), resumed ? " - resumed" : "");
+      return run;
+    } finally {
+      if (pool != null) pool.shutdown();
+      running.set(false);
+    }
+  }
+
+  public Run lastRun() {
+    return lastRun.get();
+  }
+
+  /** Takes or extends the lease; {@code null} while another instance holds it. */
+  private BillingCheckpoint acquire() {
+    LocalDateTime now = LocalDateTime.now();
+    Query query = query(where("id").is(JOB)
+        .orOperator(where("leaseUntil").lt(now), where("owner").is(instanceId)));
+    Update update = new Update().set("owner", instanceId).set("leaseUntil", now.plus(lease));
+    try {
+      return mongoTemplate.findAndModify(query, update,
+          FindAndModifyOptions.options().upsert(true).returnNew(true), BillingCheckpoint.class);
+    } catch (DuplicateKeyException e) {
+      return null; // the document exists and its lease is live
+    }
+  }
+
+  private Run start() {
+    LocalDateTime now = LocalDateTime.now();
+    String runId = new ObjectId().toHexString();
+    mongoTemplate.updateFirst(query(where("id").is(JOB).and("owner").is(instanceId)),
+        new Update()
+            .set("runId", runId)
+            .set("cutoff", now)
+            .unset("lastBillingDate")
+            .unset("lastSubscriptionId")
+            .set("finished", false)
+            .set("scanned", 0L)
+            .set("renewed", 0L)
+            .set("expired", 0L)
+            .set("failed", 0L)
+            .set("startedAt", now)
+            .set("updatedAt", now),
+        BillingCheckpoint.class);
+    return new Run(runId, now, false);
+  }
+
+  /** Due subscriptions after {@code (lastDate, lastId)}, or all of them if {@code lastDate} is {@code null}. */
+  private Query dueQuery(Run run, LocalDateTime lastDate, String lastId) {
+    Criteria criteria = where("isActive").is(true).and("nextBillingDate").lte(run.cutoff);
+    if (lastDate != null) {
+      criteria.orOperator(
+          where("nextBillingDate").gt(lastDate),
+          where("nextBillingDate").is(lastDate).and("id").gt(lastId));
+    }
+    Query query = new Query(criteria)
+        .with(Sort.by(Sort.Direction.ASC, "nextBillingDate", "id"))
+        .withHint("active_billing_idx")
+        .cursorBatchSize(chunkSize);
+    query.fields().include("userId", "username", "subscriptionType", "monthlyPrice", "nextBillingDate");
+    return query;
+  }
+
+  private void bill(Run run, List<Subscription> chunk, ExecutorService pool) {
+    run.scanned += chunk.size();
+    List<String> ids = chunk.stream().map(Subscription::getId).toList();
+    mongoTemplate.updateMulti(
+        query(where("id").in(ids).and("isActive").is(true).and("nextBillingDate").lte(run.cutoff)
+            .and("billingRun").exists(false)),
+        new Update().set("billingRun", run.runId),
+        Subscription.class);
+    Query claimedQuery = query(where("id").in(ids).and("billingRun").is(run.runId));
+    claimedQuery.fields().include("id");
+    Set<String> claimed = new HashSet<>();
+    mongoTemplate.find(claimedQuery, Subscription.class).forEach(s -> claimed.add(s.getId()));
+
+    settle(run, chunk.stream().filter(s -> claimed.contains(s.getId())).toList(), pool);
+  }
+
+  /** Charges the claimed subscriptions in {@code billable} and writes the outcomes. */
+  private void settle(Run run, List<Subscription> billable, ExecutorService pool) {
+    if (billable.isEmpty()) return;
+    List<CompletableFuture<Outcome>> charges = billable.stream()
+        .map(s -> CompletableFuture.supplyAsync(() -> charge(run, s), pool))
+        .toList();
+    CompletableFuture.allOf(charges.toArray(new CompletableFuture<?>[0])).join();
+
+    LocalDateTime now = LocalDateTime.now();
+    BulkOperations ops = mongoTemplate.bulkOps(BulkMode.UNORDERED, Subscription.class);
+    List<Subscription> paid = new ArrayList<>();
+    List<Subscription> declined = new ArrayList<>();
+    for (int i = 0; i < billable.size(); i++) {
+      Subscription s = billable.get(i);
+      // Still active: a subscription cancelled since it was claimed is left alone
+      Query claim = query(where("id").is(s.getId()).and("billingRun").is(run.runId).and("isActive").is(true));
+      switch (charges.get(i).join()) {
+        case PAID:
+          ops.updateOne(claim, renewal(run.runId, s, run.cutoff, now));
+          paid.add(s);
+          break;
+        case DECLINED:
+          ops.updateOne(claim, new Update()
+              .set("isActive", false)
+              .set("status", "EXPIRED")
+              .set("updatedAt", now)
+              .unset("billingRun"));
+          declined.add(s);
+          break;
+        default:
+          ops.updateOne(claim, new Update().unset("billingRun"));
+          run.failed++;
+      }
+    }
+    boolean allMatched = ops.execute().getMatchedCount() == billable.size();
+    Set<String> settled = allMatched ? null : settled(run, paid, declined);
+
+    for (Subscription s : paid) {
+      if (allMatched || settled.contains(s.getId())) {
+        run.renewed++;
+      } else {
+        refund(run, s);
+      }
+    }
+    List<String> lapsedUsers = new ArrayList<>();
+    for (Subscription s : declined) {
+      if (allMatched || settled.contains(s.getId())) {
+        lapsedUsers.add(s.getUserId());
+        profiles.invalidate(s.getUsername());
+        counters.unsubscribed(s.getSubscriptionType());
+        run.expired++;
+      }
+    }
+    if (!lapsedUsers.isEmpty()) {
+      userProfileRepository.clearPremium(lapsedUsers);
+    }
+  }
+
+  /**
+   * Ids among {@code paid} and {@code declined} whose settlement was applied:
+   * renewed by this run, or expired. The others were cancelled after the claim.
+   */
+  private Set<String> settled(Run run, List<Subscription> paid, List<Subscription> declined) {
+    List<String> ids = new ArrayList<>();
+    paid.forEach(s -> ids.add(s.getId()));
+    declined.forEach(s -> ids.add(s.getId()));
+    Query query = query(where("id").in(ids));
+    query.fields().include("status", "lastBillingRun");
+    Set<String> settled = new HashSet<>();
+    for (Subscription s : mongoTemplate.find(query, Subscription.class)) {
+      if (run.runId.equals(s.getLastBillingRun()) || "EXPIRED".equals(s.getStatus())) {
+        settled.add(s.getId());
+      }
+    }
+    return settled;
+  }
+
+  /** Gives back the charge for a subscription cancelled between claim and settlement. */
+  private void refund(Run run, Subscription s) {
+    try {
+      if (userProfileRepository.refundRenewal(s.getUserId(), s.getMonthlyPrice(), chargeId(run, s))) {
+        run.refunded++;
+      }
+    } catch (RuntimeException e) {
+      logger.error("Could not refund renewal of cancelled subscription {} in run {}: {}", s.getId(), run.runId,
+          e.getMessage());
+    }
+  }
+
+  private Outcome charge(Run run, Subscription s) {
+    try {
+      return userProfileRepository.chargeForRenewal(s.getUserId(), s.getMonthlyPrice(), chargeId(run, s))
+          ? Outcome.PAID : Outcome.DECLINED;
+    } catch (RuntimeException e) {
+      logger.debug("Could not charge renewal of subscription {}: {}", s.getId(), e.getMessage());
+      return Outcome.FAILED;
+    }
+  }
+
+  /**
+   * Bills again every subscription the run still has claimed, the ones whose
+   * chunk was cut short between claim and settlement. Charges already taken
+   * are recognised by their charge id and not repeated.
+   */
+  private long settleClaimed(Run run, ExecutorService pool) {
+    Query claimedQuery = query(where("billingRun").is(run.runId));
+    claimedQuery.fields().include("userId", "username", "subscriptionType", "monthlyPrice", "nextBillingDate");
+    List<Subscription> claimed = mongoTemplate.find(claimedQuery, Subscription.class);
+    for (int from = 0; from < claimed.size(); from += chunkSize) {
+      settle(run, claimed.subList(from, Math.min(from + chunkSize, claimed.size())), pool);
+    }
+    if (!claimed.isEmpty()) {
+      logger.warn("Subscription billing run {}: settled {} subscriptions claimed before it was interrupted",
+          run.runId, claimed.size());
+    }
+    return claimed.size();
+  }
+
+  /** Id a renewal charge is recorded under on the wallet. */
+  private static String chargeId(Run run, Subscription s) {
+    return run.runId + ":" + s.getId();
+  }
+
+  static Update renewal(String runId, Subscription s, LocalDateTime cutoff, LocalDateTime now) {
+    LocalDateTime next = s.getNextBillingDate();
+    do {
+      next = next.plusMonths(1);
+    } while (!next.isAfter(cutoff));
+    return new Update()
+        .set("nextBillingDate", next)
+        .set("endDate", next)
+        .set("lastBillingRun", runId)
+        .set("updatedAt", now)
+        .unset("billingRun");
+  }
+
+  /**
+   * Records progress, adding what changed since {@code before} to the run's
+   * totals, and extends the lease; {@code false} if the lease was lost.
+   */
+  private boolean checkpoint(Run run, Run before, Subscription last) {
+    LocalDateTime now = LocalDateTime.now();
+    return mongoTemplate.updateFirst(
+        query(where("id").is(JOB).and("owner").is(instanceId).and("runId").is(run.runId)),
+        new Update()
+            .set("lastBillingDate", last.getNextBillingDate())
+            .set("lastSubscriptionId", last.getId())
+            .inc("scanned", run.scanned - before.scanned)
+            .inc("renewed", run.renewed - before.renewed)
+            .inc("expired", run.expired - before.expired)
+            .inc("failed", run.failed - before.failed)
+            .set("leaseUntil", now.plus(lease))
+            .set("updatedAt", now),
+        BillingCheckpoint.class).getMatchedCount() > 0;
+  }
+
+  private void finish(Run run) {
+    LocalDateTime now = LocalDateTime.now();
+    mongoTemplate.updateFirst(query(where("id").is(JOB).and("owner").is(instanceId)),
+        new Update().set("finished", true).set("leaseUntil", now).set("updatedAt", now),
+        BillingCheckpoint.class);
+    run.elapsedMs = Duration.ofNanos(System.nanoTime() - run.startNanos).toMillis();
+    run.perSecond = run.elapsedMs == 0 ? run.scanned : run.scanned * 1000.0 / run.elapsedMs;
+  }
+
+  private enum Outcome { PAID, DECLINED, FAILED }
+
+  /**
+   * What one call of {@link #run()} did. A resumed run counts only its own
+   * part; totals across restarts are kept on the checkpoint.
+   */
+  public static class Run {
+    public final String runId;
+    public final LocalDateTime cutoff;
+    public final boolean resumed;
+    public long scanned;
+    public long renewed;
+    public long expired;
+    public long failed;
+    public long recovered;
+    public long refunded;
+    public long elapsedMs;
+    public double perSecond;
+
+    private final long startNanos = System.nanoTime();
+
+    Run(String runId, LocalDateTime cutoff, boolean resumed) {
+      this.runId = runId;
+      this.cutoff = cutoff;
+      this.resumed = resumed;
+    }
+
+    Run copy() {
+      Run copy = new Run(runId, cutoff, resumed);
+      copy.scanned = scanned;
+      copy.renewed = renewed;
+      copy.expired = expired;
+      copy.failed = failed;
+      return copy;
+    }
+  }
+}
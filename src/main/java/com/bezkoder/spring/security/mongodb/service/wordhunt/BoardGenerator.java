@@ -0,0 +1,28 @@
+package com.bezkoder.spring.security.mongodb.service.wordhunt;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+/** Deterministic grid generation: the same seed and size always give the same board. */
+public final class BoardGenerator {
+  private static final String ALPHABET = "EEEEEEEEEEEEAAAAAAAAAIIIIIIIIIIOOOOOOOOONNNNNNRRRRRRTTTTTLLLLSSSSUUUUDDDDGGGBBCCMMPPFFHHVVWWYYKJXQZ"; // biased frequency
+
+  private BoardGenerator() {}
+
+  public static long defaultSeed(LocalDate date) {
+    // Simple seed from date components to keep deterministic
+    return date.getYear() * 10000L + date.getMonthValue() * 100L + date.getDayOfMonth();
+  }
+
+  public static char[][] generateGrid(long seed, int size) {
+    Random rand = new Random(seed);
+    char[][] grid = new char[size][size];
+    for (int r = 0; r < size; r++) {
+      for (int c = 0; c < size; c++) {
+        int idx = rand.nextInt(ALPHABET.length());
+        grid[r][c] = ALPHABET.charAt(idx);
+      }
+    }
+    return grid;
+  }
+}
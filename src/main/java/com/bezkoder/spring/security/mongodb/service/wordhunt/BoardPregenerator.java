@@ -0,0 +1,256 @@
+package com.bezkoder.spring.security.mongodb.service.wordhunt;
+
+import java.time.LocalDate;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.bezkoder.spring.security.mongodb.domain.wordhunt.WhDailySeed;
+import com.bezkoder.spring.security.mongodb.repository.WhDailySeedRepository;
+
+/**
+ * Chooses quality-checked seeds for the coming days ahead of time.
+ *
+ * For every date from tomorrow up to {@code wordhunt.pregen.days} ahead and
+ * every configured size without a chosen seed yet, candidate seeds are solved
+ * in parallel on a {@link ForkJoinPool}. The lowest-numbered candidate that
+ * meets the targets wins, so the result does not depend on scheduling. The
+ * targets are given for a 4x4 board and scaled by cell count for other sizes.
+ * If no candidate qualifies, the one with the most words is used.
+ *
+ * Chosen seeds are stored in {@code wh_daily_seed.sizeSeeds}. A size that
+ * already has one is never changed, and nothing is written or dropped once
+ * the date has started, so a board cannot move under players.
+ * Whichever instance chose them, the seed document is read again afterwards
+ * and boards this instance cached from an older version are dropped.
+ */
+@Component
+public class BoardPregenerator {
+  private static final Logger logger = LoggerFactory.getLogger(BoardPregenerator.class);
+  private static final int CHUNK = 8;
+
+  private final WhDailySeedRepository seedRepository;
+  private final BoardSolver solver;
+  private final DailyBoardCache boards;
+  private final ForkJoinPool pool;
+  private final int days;
+  private final int[] sizes;
+  private final int minWords;
+  private final int minLongWords;
+  private final int longWordLength;
+  private final int maxCandidates;
+
+  private final LongAdder candidatesSolved = new LongAdder();
+  private final LongAdder seedsChosen = new LongAdder();
+  private final LongAdder belowTarget = new LongAdder();
+
+  @Autowired
+  public BoardPregenerator(WhDailySeedRepository seedRepository, BoardSolver solver, DailyBoardCache boards,
+                           @Value("${wordhunt.pregen.days:7}") int days,
+                           @Value("${wordhunt.pregen.sizes:3,4,5,6}") int[] sizes,
+                           @Value("${wordhunt.pregen.min-words:40}") int minWords,
+                           @Value("${wordhunt.pregen.min-long-words:3}") int minLongWords,
+                           @Value("${wordhunt.pregen.long-word-length:6}") int longWordLength,
+                           @Value("${wordhunt.pregen.max-candidates:2048}") int maxCandidates,
+                           @Value("${wordhunt.pregen.parallelism:0}") int parallelism) {
+    this.seedRepository = seedRepository;
+    this.solver = solver;
+    this.boards = boards;
+    this.days = Math.max(1, days);
+    this.sizes = sizes;
+    this.minWords = minWords;
+    this.minLongWords = minLongWords;
+    this.longWordLength = longWordLength;
+    this.maxCandidates = Math.max(1, maxCandidates);
+    this.pool = new ForkJoinPool(parallelism > 0 ? parallelism
+        : Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onStartup() {
+    Thread t = new Thread(this::run, "wh-board-pregen");
+    t.setDaemon(true);
+    t.start();
+  }
+
+  @Scheduled(cron = "${wordhunt.pregen.cron:0 30 0 * * *}")
+  public void run() {
+    LocalDate today = LocalDate.now();
+    try {
+      for (int d = 1; d <= days; d++) {
+        pregenerate(today.plusDays(d));
+      }
+    } catch (RuntimeException e) {
+      logger.warn("WordHunt board pre-generation stopped: {}", e.getMessage());
+    }
+  }
+
+  /** Chooses seeds for every configured size of {@code date} that lacks one. */
+  public void pregenerate(LocalDate date) {
+    long daySeed = BoardGenerator.defaultSeed(date);
+    WhDailySeed doc = seedRepository.findOrCreate(date, daySeed);
+    for (int size : sizes) {
+      if (doc.getSizeSeeds() != null && doc.getSizeSeeds().containsKey(String.valueOf(size))) continue;
+      long start = System.nanoTime();
+      Choice choice = search(date, daySeed, size);
+      if (seedRepository.setSizeSeedIfAbsent(date, doc.getSeed(), size, choice.seed)) {
+        seedsChosen.increment();
+        if (!choice.meetsTargets) belowTarget.increment();
+        logger.info("WordHunt {} {}x{}: seed {} after {} candidates, {} words, {} long ({} ms){}",
+            date, size, size, choice.seed, choice.index + 1, choice.words, choice.longWords,
+            (System.nanoTime() - start) / 1_000_000, choice.meetsTargets ? "" : " - below target");
+      }
+    }
+    // Seeds may also have been chosen by another instance, or before this one started.
+    // Once the day has started its cached boards are the ones being played.
+    if (!date.isAfter(LocalDate.now())) return;
+    WhDailySeed current = seedRepository.findOrCreate(date, daySeed);
+    if (boards.update(date, current)) {
+      if (!date.isAfter(LocalDate.now().plusDays(1))) {
+        // Inside the preloaded window: solve again now rather than on a request.
+        for (int size : sizes) {
+          boards.get(date, size);
+        }
+      }
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    pool.shutdownNow();
+  }
+
+  public Stats stats() {
+    return new Stats(candidatesSolved.sum(), seedsChosen.sum(), belowTarget.sum());
+  }
+
+  Choice search(LocalDate date, long daySeed, int size) {
+    int cells = size * size;
+    int wordTarget = scaled(minWords, cells);
+    int longTarget = scaled(minLongWords, cells);
+    AtomicInteger first = new AtomicInteger(Integer.MAX_VALUE);
+    // words << 32 | (MAX_VALUE - index): the most words, then the lowest index
+    AtomicLong fallback = new AtomicLong(Long.MIN_VALUE);
+    pool.invoke(new Search(date, daySeed, size, wordTarget, longTarget, 0, maxCandidates, first, fallback));
+
+    int index = first.get();
+    boolean meets = index != Integer.MAX_VALUE;
+    if (!meets) {
+      index = Integer.MAX_VALUE - (int) fallback.get();
+    }
+    long seed = candidate(daySeed, size, index);
+    SolvedBoard board = solver.solve(date, seed, BoardGenerator.generateGrid(seed, size));
+    return new Choice(seed, index, board.wordCount, longWords(board), meets);
+  }
+
+  /** Deterministic candidate sequence; candidate 0 is a mix of the day seed and size. */
+  static long candidate(long daySeed, int size, int index) {
+    long z = daySeed * 31 + size + (long) index * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  private static int scaled(int target, int cells) {
+    return (int) Math.ceil(target * cells / (double) (GridGeometry.DEFAULT_SIZE * GridGeometry.DEFAULT_SIZE));
+  }
+
+  private int longWords(SolvedBoard board) {
+    int n = 0;
+    for (String w : board.words().keySet()) {
+      if (w.length() >= longWordLength) n++;
+    }
+    return n;
+  }
+
+  /**
+   * Solves candidates {@code [lo, hi)}, splitting until {@link #CHUNK} are
+   * left. Ranges above the best qualifying index found so far are skipped.
+   */
+  private final class Search extends RecursiveAction {
+    private final LocalDate date;
+    private final long daySeed;
+    private final int size;
+    private final int wordTarget;
+    private final int longTarget;
+    private final int lo;
+    private final int hi;
+    private final AtomicInteger first;
+    private final AtomicLong fallback;
+
+    Search(LocalDate date, long daySeed, int size, int wordTarget, int longTarget, int lo, int hi,
+           AtomicInteger first, AtomicLong fallback) {
+      this.date = date;
+      this.daySeed = daySeed;
+      this.size = size;
+      this.wordTarget = wordTarget;
+      this.longTarget = longTarget;
+      this.lo = lo;
+      this.hi = hi;
+      this.first = first;
+      this.fallback = fallback;
+    }
+
+    @Override
+    protected void compute() {
+      if (lo >= first.get()) return;
+      if (hi - lo > CHUNK) {
+        int mid = (lo + hi) >>> 1;
+        invokeAll(new Search(date, daySeed, size, wordTarget, longTarget, lo, mid, first, fallback),
+            new Search(date, daySeed, size, wordTarget, longTarget, mid, hi, first, fallback));
+        return;
+      }
+      for (int i = lo; i < hi && i < first.get(); i++) {
+        long seed = candidate(daySeed, size, i);
+        SolvedBoard board = solver.solve(date, seed, BoardGenerator.generateGrid(seed, size));
+        candidatesSolved.increment();
+        if (board.wordCount >= wordTarget && longWords(board) >= longTarget) {
+          first.accumulateAndGet(i, Math::min);
+          return;
+        }
+        fallback.accumulateAndGet(((long) board.wordCount << 32) | (Integer.MAX_VALUE - i), Math::max);
+      }
+    }
+  }
+
+  static final class Choice {
+    final long seed;
+    final int index;
+    final int words;
+    final int longWords;
+    final boolean meetsTargets;
+
+    Choice(long seed, int index, int words, int longWords, boolean meetsTargets) {
+      this.seed = seed;
+      this.index = index;
+      this.words = words;
+      this.longWords = longWords;
+      this.meetsTargets = meetsTargets;
+    }
+  }
+
+  public static class Stats {
+    public final long candidatesSolved;
+    public final long seedsChosen;
+    public final long belowTarget;
+
+    public Stats(long candidatesSolved, long seedsChosen, long belowTarget) {
+      this.candidatesSolved = candidatesSolved;
+      this.seedsChosen = seedsChosen;
+      this.belowTarget = belowTarget;
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package com.bezkoder.spring.security.mongodb.service.wordhunt;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Enumerates every dictionary word on a grid in a single depth-first pass.
+ * The dictionary automaton is walked alongside the grid path, so a branch is
+ * abandoned as soon as no word starts with the letters collected so far.
+ */
+@Component
+public class BoardSolver {
+  public static final int MIN_WORD_LENGTH = 3;
+
+  private final WordDictionary dictionary;
+
+  @Autowired
+  public BoardSolver(WordDictionary dictionary) {
+    this.dictionary = dictionary;
+  }
+
+  public SolvedBoard solve(LocalDate date, long seed, char[][] grid) {
+    GridGeometry geometry = GridGeometry.of(grid.length);
+    char[] cells = GridGeometry.flatten(grid);
+    Map<String, Integer> found = new HashMap<>();
+    char[] path = new char[geometry.cells];
+    for (int cell = 0; cell < geometry.cells; cell++) {
+      search(geometry, cells, cell, dictionary.root(), path, 0, 0L, found);
+    }
+    return new SolvedBoard(date, seed, grid, found);
+  }
+
+  private void search(GridGeometry geometry, char[] cells, int cell, int parent, char[] path, int depth,
+                      long visited, Map<String, Integer> found) {
+    int node = dictionary.step(parent, cells[cell]);
+    if (node == WordDictionary.NO_NODE) return;
+    path[depth++] = cells[cell];
+    if (depth >= MIN_WORD_LENGTH && dictionary.isWord(node)) {
+      found.putIfAbsent(new String(path, 0, depth), scoreFor(depth));
+    }
+    visited |= 1L << cell;
+    for (int next : geometry.neighbours(cell)) {
+      if ((visited & (1L << next)) == 0) {
+        search(geometry, cells, next, node, path, depth, visited, found);
+      }
+    }
+  }
+
+  public static int scoreFor(int length) {
+    if (length <= 2) return 0;
+    if (length <= 4) return 1;
+    if (length == 5) return 2;
+    if (length == 6) return 3;
+    if (length == 7) return 5;
+    return 11;
+  }
+}
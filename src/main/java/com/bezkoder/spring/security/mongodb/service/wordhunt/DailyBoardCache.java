@@ -0,0 +1,200 @@
+package com.bezkoder.spring.security.mongodb.service.wordhunt;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.bezkoder.spring.security.mongodb.domain.wordhunt.WhDailySeed;
+import com.bezkoder.spring.security.mongodb.repository.WhDailySeedRepository;
+
+/**
+ * Solved boards keyed by {@code (date, size, seed)}.
+ *
+ * Yesterday, today and tomorrow are preloaded at startup and again just after
+ * midnight, when older days are dropped. Other dates are cached on demand; when
+ * the cache grows past {@code wordhunt.board-cache.max-entries}, the least
+ * recently used boards outside that three-day window are evicted. The seed
+ * document is fetched (or created) once per date and shared by every size;
+ * sizes with a pre-generated seed (see {@link BoardPregenerator}) use it.
+ * Because the seed is part of the key, a board solved from a seed document
+ * that has since been replaced (see {@link #update}) is never served again,
+ * even if a request that was in flight caches it afterwards. Like seeds, each
+ * board is a shared future: concurrent misses on one key wait for a single
+ * solve, and a failed solve is forgotten so the next caller retries.
+ */
+@Component
+public class DailyBoardCache {
+  private static final Logger logger = LoggerFactory.getLogger(DailyBoardCache.class);
+
+  private final WhDailySeedRepository seedRepository;
+  private final BoardSolver solver;
+  private final int maxEntries;
+
+  private final ConcurrentMap<BoardKey, Entry> boards = new ConcurrentHashMap<>();
+  private final ConcurrentMap<LocalDate, CompletableFuture<WhDailySeed>> seeds = new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder seedLoads = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  @Autowired
+  public DailyBoardCache(WhDailySeedRepository seedRepository, BoardSolver solver,
+                         @Value("${wordhunt.board-cache.max-entries:64}") int maxEntries) {
+    this.seedRepository = seedRepository;
+    this.solver = solver;
+    this.maxEntries = Math.max(maxEntries, 3 * (GridGeometry.MAX_SIZE - GridGeometry.MIN_SIZE + 1));
+  }
+
+  public SolvedBoard get(LocalDate date, int size) {
+    long seed = seedFor(date).seedFor(size);
+    BoardKey key = new BoardKey(date, size, seed);
+    Entry mine = new Entry();
+    Entry entry = boards.putIfAbsent(key, mine);
+    if (entry != null) {
+      hits.increment();
+      entry.lastAccess = System.nanoTime();
+      return join(entry.board);
+    }
+    misses.increment();
+    SolvedBoard board;
+    try {
+      board = solver.solve(date, seed, BoardGenerator.generateGrid(seed, size));
+      mine.board.complete(board);
+    } catch (RuntimeException e) {
+      boards.remove(key, mine);
+      mine.board.completeExceptionally(e);
+      throw e;
+    }
+    boards.keySet().removeIf(k -> k.date.equals(date) && k.size == size && k.seed != seed);
+    evictIfNeeded();
+    return board;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(cron = "${wordhunt.board-cache.roll-cron:5 0 0 * * *}")
+  public void roll() {
+    LocalDate today = LocalDate.now();
+    LocalDate oldest = today.minusDays(1);
+    boards.keySet().removeIf(k -> k.date.isBefore(oldest));
+    seeds.keySet().removeIf(d -> d.isBefore(oldest));
+    try {
+      for (LocalDate date = oldest; !date.isAfter(today.plusDays(1)); date = date.plusDays(1)) {
+        for (int size = GridGeometry.MIN_SIZE; size <= GridGeometry.MAX_SIZE; size++) {
+          get(date, size);
+        }
+      }
+    } catch (RuntimeException e) {
+      logger.warn("Could not preload WordHunt boards: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Replaces the cached seed document for {@code date} with {@code current}
+   * and drops boards solved from other seeds. Returns whether anything cached
+   * for the date was out of date.
+   */
+  public boolean update(LocalDate date, WhDailySeed current) {
+    CompletableFuture<WhDailySeed> cached = seeds.put(date, CompletableFuture.completedFuture(current));
+    boolean stale = cached != null && (!cached.isDone() || cached.isCompletedExceptionally()
+        || !Objects.equals(cached.join().getSizeSeeds(), current.getSizeSeeds()));
+    stale |= boards.keySet().removeIf(k -> k.date.equals(date) && k.seed != current.seedFor(k.size));
+    return stale;
+  }
+
+  public Stats stats() {
+    return new Stats(boards.size(), hits.sum(), misses.sum(), seedLoads.sum(), evictions.sum());
+  }
+
+  /**
+   * Seed for {@code date}. Concurrent callers for a date that is not cached yet
+   * share one in-flight future, so a midnight burst costs a single Mongo
+   * upsert. A failed load is forgotten so the next caller retries.
+   */
+  private WhDailySeed seedFor(LocalDate date) {
+    CompletableFuture<WhDailySeed> mine = new CompletableFuture<>();
+    CompletableFuture<WhDailySeed> existing = seeds.putIfAbsent(date, mine);
+    if (existing != null) {
+      return join(existing);
+    }
+    try {
+      seedLoads.increment();
+      WhDailySeed seed = seedRepository.findOrCreate(date, BoardGenerator.defaultSeed(date));
+      mine.complete(seed);
+      return seed;
+    } catch (RuntimeException e) {
+      seeds.remove(date, mine);
+      mine.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+    }
+  }
+
+  private synchronized void evictIfNeeded() {
+    int excess = boards.size() - maxEntries;
+    if (excess <= 0) return;
+    LocalDate today = LocalDate.now();
+    boards.entrySet().stream()
+        .filter(e -> !inWindow(e.getKey().date, today))
+        .sorted(Comparator.comparingLong(e -> e.getValue().lastAccess))
+        .limit(excess)
+        .map(Map.Entry::getKey)
+        .toList()
+        .forEach(key -> {
+          boards.remove(key);
+          evictions.increment();
+        });
+    seeds.keySet().removeIf(d -> !inWindow(d, today) && boards.keySet().stream().noneMatch(k -> k.date.equals(d)));
+  }
+
+  private static boolean inWindow(LocalDate date, LocalDate today) {
+    return !date.isBefore(today.minusDays(1)) && !date.isAfter(today.plusDays(1));
+  }
+
+  private record BoardKey(LocalDate date, int size, long seed) {}
+
+  private static final class Entry {
+    final CompletableFuture<SolvedBoard> board = new CompletableFuture<>();
+    volatile long lastAccess = System.nanoTime();
+  }
+
+  public static class Stats {
+    public final int entries;
+    public final long hits;
+    public final long misses;
+    public final long seedLoads;
+    public final long evictions;
+    public final double hitRatio;
+
+    public Stats(int entries, long hits, long misses, long seedLoads, long evictions) {
+      this.entries = entries;
+      this.hits = hits;
+      this.misses = misses;
+      this.seedLoads = seedLoads;
+      this.evictions = evictions;
+      long total = hits + misses;
+      this.hitRatio = total == 0 ? 0.0 : (double) hits / total;
+    }
+  }
+}
@@ -0,0 +1,212 @@
+package com.bezkoder.spring.security.mongodb.service.wordhunt;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Ranking of one day's scores.
+ *
+ * Entries are kept in a sorted set (score descending, then user id) for
+ * top-N and neighbour queries, and their scores are counted in a Fenwick tree
+ * so a rank is two prefix sums. Ranks use competition ranking: players with
+ * equal scores share a rank, which is one more than the number of players who
+ * scored strictly higher.
+ */
+public final class DailyLeaderboard {
+  private static final Comparator<Entry> ORDER = Comparator
+      .comparingInt((Entry e) -> -e.score)
+      .thenComparing(e -> e.userId);
+
+  private final Map<String, Entry> byUser = new HashMap<>();
+  private final TreeSet<Entry> ordered = new TreeSet<>(ORDER);
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private int[] tree = new int[64];
+
+  public void put(String userId, String username, int score, int wordsFound) {
+    Entry entry = new Entry(userId, username, Math.max(0, score), wordsFound);
+    lock.writeLock().lock();
+    try {
+      ensureCapacity(entry.score);
+      Entry previous = byUser.put(userId, entry);
+      if (previous != null) {
+        ordered.remove(previous);
+        add(previous.score, -1);
+      }
+      ordered.add(entry);
+      add(entry.score, 1);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Adds the score unless the user already has one; returns whether it was added. */
+  public boolean putIfAbsent(String userId, String username, int score, int wordsFound) {
+    lock.writeLock().lock();
+    try {
+      if (byUser.containsKey(userId)) return false;
+      put(userId, username, score, wordsFound);
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void remove(String userId) {
+    lock.writeLock().lock();
+    try {
+      Entry previous = byUser.remove(userId);
+      if (previous != null) {
+        ordered.remove(previous);
+        add(previous.score, -1);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public Entry get(String userId) {
+    lock.readLock().lock();
+    try {
+      return byUser.get(userId);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return byUser.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** 1-based rank of {@code userId}, or 0 if the user has no score. */
+  public int rankOf(String userId) {
+    lock.readLock().lock();
+    try {
+      Entry entry = byUser.get(userId);
+      return entry == null ? 0 : rankOfScore(entry.score);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public List<Ranked> top(int limit) {
+    lock.readLock().lock();
+    try {
+      List<Ranked> rows = new ArrayList<>(Math.min(limit, ordered.size()));
+      Iterator<Entry> it = ordered.iterator();
+      while (rows.size() < limit && it.hasNext()) {
+        Entry e = it.next();
+        rows.add(new Ranked(e, rankOfScore(e.score)));
+      }
+      return rows;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Up to {@code k} players either side of {@code userId}, including the user. */
+  public List<Ranked> around(String userId, int k) {
+    lock.readLock().lock();
+    try {
+      Entry me = byUser.get(userId);
+      if (me == null) return List.of();
+      Deque<Ranked> rows = new ArrayDeque<>(2 * k + 1);
+      Iterator<Entry> above = ordered.headSet(me, false).descendingIterator();
+      for (int i = 0; i < k && above.hasNext(); i++) {
+        Entry e = above.next();
+        rows.addFirst(new Ranked(e, rankOfScore(e.score)));
+      }
+      rows.addLast(new Ranked(me, rankOfScore(me.score)));
+      Iterator<Entry> below = ordered.tailSet(me, false).iterator();
+      for (int i = 0; i < k && below.hasNext(); i++) {
+        Entry e = below.next();
+        rows.addLast(new Ranked(e, rankOfScore(e.score)));
+      }
+      return new ArrayList<>(rows);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private int rankOfScore(int score) {
+    return 1 + byUser.size() - prefix(score);
+  }
+
+  // Fenwick tree over score values; tree[i] covers scores [i - lowbit(i), i).
+
+  private void add(int score, int delta) {
+    for (int i = score + 1; i < tree.length; i += i & -i) {
+      tree[i] += delta;
+    }
+  }
+
+  /** Number of entries with a score {@code <= score}. */
+  private int prefix(int score) {
+    int sum = 0;
+    for (int i = Math.min(score + 1, tree.length - 1); i > 0; i -= i & -i) {
+      sum += tree[i];
+    }
+    return sum;
+  }
+
+  /** Resizes the tree so it can hold {@code score}, rebuilding it from the current entries. */
+  private void ensureCapacity(int score) {
+    if (score + 1 < tree.length) return;
+    int length = tree.length;
+    while (length <= score + 1) {
+      length *= 2;
+    }
+    int[] counts = new int[length];
+    for (Entry e : ordered) {
+      counts[e.score + 1]++;
+    }
+    for (int i = 1; i < length; i++) {
+      int parent = i + (i & -i);
+      if (parent < length) {
+        counts[parent] += counts[i];
+      }
+    }
+    tree = counts;
+  }
+
+  public static final class Entry {
+    public final String userId;
+    public final String username;
+    public final int score;
+    public final int wordsFound;
+
+    Entry(String userId, String username, int score, int wordsFound) {
+      this.userId = userId;
+      this.username = username;
+      this.score = score;
+      this.wordsFound = wordsFound;
+    }
+  }
+
+  public static final class Ranked {
+    public final int rank;
+    public final String username;
+    public final int score;
+    public final int wordsFound;
+
+    Ranked(Entry entry, int rank) {
+      this.rank = rank;
+      this.username = entry.username;
+      this.score = entry.score;
+      this.wordsFound = entry.wordsFound;
+    }
+  }
+}
@@ -0,0 +1,283 @@
+package com.bezkoder.spring.security.mongodb.service.wordhunt;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimised DAWG (directed acyclic word graph) over the letters A-Z, flattened
+ * into primitive arrays.
+ *
+ * Node {@code n} owns the edges {@code edges[firstEdge[n] .. firstEdge[n + 1])},
+ * sorted by letter. Each edge packs the target node and the letter index as
+ * {@code target << 5 | letter}. Terminal nodes are kept in a bitset. Lookups
+ * never allocate.
+ */
+public final class DawgDictionary implements WordDictionary {
+  private static final int LETTER_BITS = 5;
+  private static final int LETTER_MASK = (1 << LETTER_BITS) - 1;
+  private static final int ALPHABET_SIZE = 26;
+
+  private final int[] firstEdge;
+  private final int[] edges;
+  private final long[] terminal;
+  private final int wordCount;
+
+  private DawgDictionary(int[] firstEdge, int[] edges, long[] terminal, int wordCount) {
+    this.firstEdge = firstEdge;
+    this.edges = edges;
+    this.terminal = terminal;
+    this.wordCount = wordCount;
+  }
+
+  /**
+   * Reads one word per line. Blank lines and lines starting with '#' are
+   * skipped; words are upper-cased and anything outside A-Z is dropped.
+   */
+  public static DawgDictionary load(InputStream in) throws IOException {
+    List<String> words = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String word = line.trim();
+        if (!word.isEmpty() && word.charAt(0) != '#') {
+          words.add(word);
+        }
+      }
+    }
+    return build(words);
+  }
+
+  public static DawgDictionary build(Collection<String> source) {
+    String[] words = source.stream()
+        .map(DawgDictionary::normalize)
+        .filter(w -> w != null)
+        .sorted()
+        .distinct()
+        .toArray(String[]::new);
+
+    Builder builder = new Builder();
+    for (String word : words) {
+      builder.add(word);
+    }
+    return builder.finish(words.length);
+  }
+
+  private static String normalize(String word) {
+    if (word == null || word.isEmpty()) return null;
+    String upper = word.trim().toUpperCase();
+    for (int i = 0; i < upper.length(); i++) {
+      char c = upper.charAt(i);
+      if (c < 'A' || c > 'Z') return null;
+    }
+    return upper.isEmpty() ? null : upper;
+  }
+
+  @Override
+  public boolean contains(CharSequence word) {
+    int node = walk(word);
+    return node != NO_NODE && isWord(node);
+  }
+
+  @Override
+  public boolean hasPrefix(CharSequence prefix) {
+    return walk(prefix) != NO_NODE;
+  }
+
+  @Override
+  public int root() {
+    return 0;
+  }
+
+  @Override
+  public int step(int node, char letter) {
+    if (letter >= 'a' && letter <= 'z') {
+      letter -= 'a' - 'A';
+    }
+    int idx = letter - 'A';
+    if (idx < 0 || idx >= ALPHABET_SIZE) return NO_NODE;
+    for (int e = firstEdge[node], end = firstEdge[node + 1]; e < end; e++) {
+      int edge = edges[e];
+      int label = edge & LETTER_MASK;
+      if (label == idx) return edge >>> LETTER_BITS;
+      if (label > idx) break;
+    }
+    return NO_NODE;
+  }
+
+  @Override
+  public boolean isWord(int node) {
+    return (terminal[node >>> 6] & (1L << node)) != 0;
+  }
+
+  @Override
+  public int size() {
+    return wordCount;
+  }
+
+  @Override
+  public Footprint footprint() {
+    long bytes = 4L * firstEdge.length + 4L * edges.length + 8L * terminal.length;
+    return new Footprint(wordCount, firstEdge.length - 1, edges.length, bytes);
+  }
+
+  private int walk(CharSequence word) {
+    if (word == null) return NO_NODE;
+    int node = root();
+    for (int i = 0; i < word.length() && node != NO_NODE; i++) {
+      node = step(node, word.charAt(i));
+    }
+    return node;
+  }
+
+  /**
+   * Incremental construction of a minimal acyclic automaton from sorted input
+   * (Daciuk et al., 2000): once a word is added, every node below the common
+   * prefix with the next word is final and can be merged with an equivalent
+   * registered node.
+   */
+  private static final class Builder {
+    private final Node root = new Node();
+    private final Map<Node, Node> register = new HashMap<>();
+    private String previous = "";
+
+    void add(String word) {
+      int common = 0;
+      int max = Math.min(previous.length(), word.length());
+      while (common < max && previous.charAt(common) == word.charAt(common)) {
+        common++;
+      }
+      Node last = root;
+      for (int i = 0; i < common; i++) {
+        last = last.lastChild();
+      }
+      if (last.count > 0) {
+        replaceOrRegister(last);
+      }
+      Node node = last;
+      for (int i = common; i < word.length(); i++) {
+        Node child = new Node();
+        node.addChild((byte) (word.charAt(i) - 'A'), child);
+        node = child;
+      }
+      node.terminal = true;
+      previous = word;
+    }
+
+    DawgDictionary finish(int wordCount) {
+      if (root.count > 0) {
+        replaceOrRegister(root);
+      }
+
+      // Breadth-first numbering keeps the root at 0 and nodes near the top
+      // of the graph (the hottest ones) close together.
+      Map<Node, Integer> ids = new IdentityHashMap<>();
+      List<Node> order = new ArrayList<>();
+      ArrayDeque<Node> queue = new ArrayDeque<>();
+      ids.put(root, 0);
+      order.add(root);
+      queue.add(root);
+      int edgeCount = 0;
+      while (!queue.isEmpty()) {
+        Node node = queue.poll();
+        edgeCount += node.count;
+        for (int i = 0; i < node.count; i++) {
+          Node child = node.children[i];
+          if (!ids.containsKey(child)) {
+            ids.put(child, order.size());
+            order.add(child);
+            queue.add(child);
+          }
+        }
+      }
+
+      int nodeCount = order.size();
+      int[] firstEdge = new int[nodeCount + 1];
+      int[] edges = new int[edgeCount];
+      long[] terminal = new long[(nodeCount + 63) >>> 6];
+      int e = 0;
+      for (int n = 0; n < nodeCount; n++) {
+        Node node = order.get(n);
+        firstEdge[n] = e;
+        if (node.terminal) {
+          terminal[n >>> 6] |= 1L << n;
+        }
+        for (int i = 0; i < node.count; i++) {
+          edges[e++] = ids.get(node.children[i]) << LETTER_BITS | node.labels[i];
+        }
+      }
+      firstEdge[nodeCount] = e;
+      return new DawgDictionary(firstEdge, edges, terminal, wordCount);
+    }
+
+    private void replaceOrRegister(Node state) {
+      Node child = state.lastChild();
+      if (child.count > 0) {
+        replaceOrRegister(child);
+      }
+      Node existing = register.putIfAbsent(child, child);
+      if (existing != null) {
+        state.children[state.count - 1] = existing;
+      }
+    }
+  }
+
+  private static final class Node {
+    private static final byte[] NO_LABELS = new byte[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    boolean terminal;
+    byte[] labels = NO_LABELS;
+    Node[] children = NO_CHILDREN;
+    int count;
+
+    Node lastChild() {
+      return children[count - 1];
+    }
+
+    void addChild(byte label, Node child) {
+      if (count == labels.length) {
+        int capacity = Math.min(ALPHABET_SIZE, Math.max(2, count * 2));
+        labels = Arrays.copyOf(labels, capacity);
+        children = Arrays.copyOf(children, capacity);
+      }
+      labels[count] = label;
+      children[count] = child;
+      count++;
+    }
+
+    // Equality is only meaningful once a node is frozen: its children are
+    // already registered, so they can be compared by identity.
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Node)) return false;
+      Node other = (Node) o;
+      if (terminal != other.terminal || count != other.count) return false;
+      for (int i = 0; i < count; i++) {
+        if (labels[i] != other.labels[i] || children[i] != other.children[i]) return false;
+      }
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      int h = terminal ? 1 : 0;
+      for (int i = 0; i < count; i++) {
+        h = 31 * h + labels[i];
+        h = 31 * h + System.identityHashCode(children[i]);
+      }
+      return h;
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package com.bezkoder.spring.security.mongodb.service.wordhunt;
+
+import java.util.Arrays;
+
+/**
+ * Adjacency tables for square grids stored row-major in a flat {@code char[]}.
+ * Cell {@code r * size + c} has up to eight neighbours; the tables for every
+ * supported size are built once at class load.
+ */
+public final class GridGeometry {
+  public static final int MIN_SIZE = 3;
+  public static final int MAX_SIZE = 6;
+  /** Size of the board that submissions are scored against. */
+  public static final int DEFAULT_SIZE = 4;
+
+  private static final GridGeometry[] BY_SIZE = new GridGeometry[MAX_SIZE + 1];
+
+  static {
+    for (int size = MIN_SIZE; size <= MAX_SIZE; size++) {
+      BY_SIZE[size] = new GridGeometry(size);
+    }
+  }
+
+  public final int size;
+  public final int cells;
+  private final int[][] neighbours;
+
+  private GridGeometry(int size) {
+    this.size = size;
+    this.cells = size * size;
+    this.neighbours = new int[cells][];
+    int[] scratch = new int[8];
+    for (int r = 0; r < size; r++) {
+      for (int c = 0; c < size; c++) {
+        int count = 0;
+        for (int dr = -1; dr <= 1; dr++) {
+          for (int dc = -1; dc <= 1; dc++) {
+            int nr = r + dr;
+            int nc = c + dc;
+            if ((dr != 0 || dc != 0) && nr >= 0 && nc >= 0 && nr < size && nc < size) {
+              scratch[count++] = nr * size + nc;
+            }
+          }
+        }
+        neighbours[r * size + c] = Arrays.copyOf(scratch, count);
+      }
+    }
+  }
+
+  public static GridGeometry of(int size) {
+    if (size < MIN_SIZE || size > MAX_SIZE) {
+      throw new IllegalArgumentException("Unsupported grid size: " + size);
+    }
+    return BY_SIZE[size];
+  }
+
+  /** Neighbouring cell indexes of {@code cell}. The array is shared; do not modify it. */
+  public int[] neighbours(int cell) {
+    return neighbours[cell];
+  }
+
+  public static char[] flatten(char[][] grid) {
+    int n = grid.length;
+    char[] cells = new char[n * n];
+    for (int r = 0; r < n; r++) {
+      System.arraycopy(grid[r], 0, cells, r * n, n);
+    }
+    return cells;
+  }
+}
@@ -0,0 +1,64 @@
+package com.bezkoder.spring.security.mongodb.service.wordhunt;
+
+/**
+ * Checks whether a word can be traced on a grid through adjacent, unused cells.
+ *
+ * The search is an explicit-stack depth-first walk over {@link GridGeometry}
+ * neighbour tables with the visited set held in a {@code long} bitmask. The
+ * stack lives in this object, so an instance is not thread-safe; use
+ * {@link #forCurrentThread()} to get a reusable per-thread instance. After
+ * the first call on a thread, validation does not allocate.
+ */
+public final class GridPathValidator {
+  private static final ThreadLocal<GridPathValidator> LOCAL = ThreadLocal.withInitial(GridPathValidator::new);
+
+  private final int[] stackCell = new int[GridGeometry.MAX_SIZE * GridGeometry.MAX_SIZE];
+  private final int[] stackNext = new int[GridGeometry.MAX_SIZE * GridGeometry.MAX_SIZE];
+
+  public static GridPathValidator forCurrentThread() {
+    return LOCAL.get();
+  }
+
+  /**
+   * @param word  letters to trace; lower-case input is matched as upper case
+   * @param cells grid letters in row-major order, upper case
+   */
+  public boolean isOnGrid(CharSequence word, char[] cells, GridGeometry geometry) {
+    int len = word.length();
+    if (len == 0 || len > geometry.cells) return false;
+    char first = upper(word.charAt(0));
+    for (int start = 0; start < geometry.cells; start++) {
+      if (cells[start] != first) continue;
+      if (len == 1 || walkFrom(start, word, len, cells, geometry)) return true;
+    }
+    return false;
+  }
+
+  private boolean walkFrom(int start, CharSequence word, int len, char[] cells, GridGeometry geometry) {
+    long visited = 1L << start;
+    int depth = 0;
+    stackCell[0] = start;
+    stackNext[0] = 0;
+    while (depth >= 0) {
+      int cell = stackCell[depth];
+      int[] neighbours = geometry.neighbours(cell);
+      if (stackNext[depth] == neighbours.length) {
+        visited &= ~(1L << cell);
+        depth--;
+        continue;
+      }
+      int next = neighbours[stackNext[depth]++];
+      if ((visited & (1L << next)) != 0 || cells[next] != upper(word.charAt(depth + 1))) continue;
+      if (depth + 2 == len) return true;
+      depth++;
+      stackCell[depth] = next;
+      stackNext[depth] = 0;
+      visited |= 1L << next;
+    }
+    return false;
+  }
+
+  private static char upper(char c) {
+    return c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+  }
+}
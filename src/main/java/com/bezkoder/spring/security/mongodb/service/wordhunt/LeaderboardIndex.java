@@ -0,0 +1,120 @@
+package com.bezkoder.spring.security.mongodb.service.wordhunt;
+
+import java.time.LocalDate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.bezkoder.spring.security.mongodb.domain.wordhunt.WhScore;
+import com.bezkoder.spring.security.mongodb.repository.WhScoreRepository;
+
+/**
+ * In-memory {@link DailyLeaderboard} per date.
+ *
+ * The most recent days are rebuilt from {@code date_score_idx} at startup;
+ * any other date is loaded the first time it is asked for. After that, reads
+ * never touch Mongo and accepted submissions are applied incrementally. Days
+ * older than {@code wordhunt.leaderboard.retention-days} are dropped nightly.
+ * Only days from that window up to today are held: asking for any other date
+ * is an {@link IllegalArgumentException}, so clients cannot fill the map.
+ */
+@Component
+public class LeaderboardIndex {
+  private static final Logger logger = LoggerFactory.getLogger(LeaderboardIndex.class);
+
+  private final WhScoreRepository scoreRepository;
+  private final int retentionDays;
+  private final ConcurrentMap<LocalDate, Day> days = new ConcurrentHashMap<>();
+
+  @Autowired
+  public LeaderboardIndex(WhScoreRepository scoreRepository,
+                          @Value("${wordhunt.leaderboard.retention-days:7}") int retentionDays) {
+    this.scoreRepository = scoreRepository;
+    this.retentionDays = Math.max(1, retentionDays);
+  }
+
+  public DailyLeaderboard forDate(LocalDate date) {
+    if (!inWindow(date)) {
+      throw new IllegalArgumentException("No leaderboard for " + date);
+    }
+    return days.computeIfAbsent(date, Day::new).get();
+  }
+
+  /** Whether {@code date} is today or one of the retained days before it. */
+  public boolean inWindow(LocalDate date) {
+    LocalDate today = LocalDate.now();
+    return !date.isAfter(today) && !date.isBefore(today.minusDays(retentionDays));
+  }
+
+  /** The day's leaderboard if it is already in memory, without loading it. */
+  public DailyLeaderboard ifLoaded(LocalDate date) {
+    Day day = days.get(date);
+    return day == null ? null : day.board;
+  }
+
+  public void record(WhScore score) {
+    if (!inWindow(score.getDate())) return;
+    forDate(score.getDate()).put(score.getUserId(), score.getUsername(), score.getScore(), score.getWordsFound());
+  }
+
+  /** Replaces the in-memory entry for {@code userId} with what Mongo holds. */
+  public void reload(LocalDate date, String userId) {
+    if (!inWindow(date)) return;
+    DailyLeaderboard board = forDate(date);
+    board.remove(userId);
+    scoreRepository.findByUserIdAndDate(userId, date)
+        .ifPresent(s -> board.put(s.getUserId(), s.getUsername(), s.getScore(), s.getWordsFound()));
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    LocalDate today = LocalDate.now();
+    try {
+      forDate(today);
+      forDate(today.minusDays(1));
+    } catch (RuntimeException e) {
+      logger.warn("Could not rebuild WordHunt leaderboards: {}", e.getMessage());
+    }
+  }
+
+  @Scheduled(cron = "${wordhunt.board-cache.roll-cron:5 0 0 * * *}")
+  public void evictOldDays() {
+    LocalDate oldest = LocalDate.now().minusDays(retentionDays);
+    days.keySet().removeIf(d -> d.isBefore(oldest));
+  }
+
+  /** Loads a day once; concurrent first readers wait on the same load. */
+  private final class Day {
+    private final LocalDate date;
+    private volatile DailyLeaderboard board;
+
+    Day(LocalDate date) {
+      this.date = date;
+    }
+
+    DailyLeaderboard get() {
+      DailyLeaderboard b = board;
+      if (b != null) return b;
+      synchronized (this) {
+        if (board == null) {
+          DailyLeaderboard loaded = new DailyLeaderboard();
+          try (Stream<WhScore> scores = scoreRepository.streamRankingByDate(date)) {
+            scores.forEach(s -> loaded.put(s.getUserId(), s.getUsername(), s.getScore(), s.getWordsFound()));
+          }
+          logger.debug("Loaded WordHunt leaderboard for {} ({} players)", date, loaded.size());
+          board = loaded;
+        }
+        return board;
+      }
+    }
+  }
+}
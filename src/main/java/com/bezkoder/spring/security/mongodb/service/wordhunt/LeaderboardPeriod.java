@@ -0,0 +1,62 @@
+package com.bezkoder.spring.security.mongodb.service.wordhunt;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.IsoFields;
+import java.util.Locale;
+
+/**
+ * Horizon of a WordHunt leaderboard. Every period except {@link #DAY} is
+ * served from a rollup collection keyed by {@link #keyFor(LocalDate)}.
+ */
+public enum LeaderboardPeriod {
+  DAY(null),
+  WEEK("wh_scores_weekly"),
+  MONTH("wh_scores_monthly"),
+  ALL("wh_scores_alltime");
+
+  private final String collection;
+
+  LeaderboardPeriod(String collection) {
+    this.collection = collection;
+  }
+
+  public boolean isRollup() {
+    return collection != null;
+  }
+
+  public String collection() {
+    return collection;
+  }
+
+  /** Period containing {@code date}: {@code 2024-W07}, {@code 2024-02}, {@code all}. */
+  public String keyFor(LocalDate date) {
+    switch (this) {
+      case WEEK:
+        return String.format("%d-W%02d", date.get(IsoFields.WEEK_BASED_YEAR), date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+      case MONTH:
+        return YearMonth.from(date).toString();
+      case ALL:
+        return "all";
+      default:
+        return date.toString();
+    }
+  }
+
+  public static LeaderboardPeriod parse(String value) {
+    if (value == null || value.isBlank()) return DAY;
+    switch (value.trim().toLowerCase(Locale.ROOT)) {
+      case "day":
+        return DAY;
+      case "week":
+        return WEEK;
+      case "month":
+        return MONTH;
+      case "all":
+      case "alltime":
+        return ALL;
+      default:
+        throw new IllegalArgumentException("Unknown leaderboard period: " + value);
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package com.bezkoder.spring.security.mongodb.service.wordhunt;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * One player's game on one daily board. Words are checked one at a time
+ * against the cached {@link SolvedBoard}; nothing is written until the
+ * session is committed, which can happen only once.
+ */
+public final class PlaySession {
+  public enum Outcome { ACCEPTED, DUPLICATE, TOO_SHORT, NOT_ON_BOARD, NOT_A_WORD, CLOSED }
+
+  public final String id;
+  public final String userId;
+  public final String username;
+  public final LocalDate date;
+  public final SolvedBoard board;
+
+  private final Set<String> found = new LinkedHashSet<>();
+  private int score;
+  private boolean closed;
+  private volatile long lastTouched = System.nanoTime();
+
+  PlaySession(String id, String userId, String username, LocalDate date, SolvedBoard board) {
+    this.id = id;
+    this.userId = userId;
+    this.username = username;
+    this.date = date;
+    this.board = board;
+  }
+
+  public synchronized Attempt tryWord(String raw) {
+    lastTouched = System.nanoTime();
+    if (closed) return new Attempt(Outcome.CLOSED, 0, score, found.size());
+    String word = raw == null ? "" : raw.trim().toUpperCase(Locale.ROOT);
+    Outcome outcome;
+    int points = 0;
+    if (word.length() < BoardSolver.MIN_WORD_LENGTH) {
+      outcome = Outcome.TOO_SHORT;
+    } else if ((points = board.scoreOf(word)) > 0) {
+      if (found.add(word)) {
+        score += points;
+        outcome = Outcome.ACCEPTED;
+      } else {
+        points = 0;
+        outcome = Outcome.DUPLICATE;
+      }
+    } else {
+      outcome = board.isTraceable(word) ? Outcome.NOT_A_WORD : Outcome.NOT_ON_BOARD;
+    }
+    return new Attempt(outcome, points, score, found.size());
+  }
+
+  /** Closes the session and returns its words, or null if it was already closed. */
+  synchronized List<String> close() {
+    if (closed) return null;
+    closed = true;
+    return new ArrayList<>(found);
+  }
+
+  public synchronized int score() {
+    return score;
+  }
+
+  public synchronized List<String> words() {
+    return new ArrayList<>(found);
+  }
+
+  long lastTouched() {
+    return lastTouched;
+  }
+
+  public static final class Attempt {
+    public final Outcome outcome;
+    public final int points;
+    public final int score;
+    public final int wordsFound;
+
+    Attempt(Outcome outcome, int points, int score, int wordsFound) {
+      this.outcome = outcome;
+      this.points = points;
+      this.score = score;
+      this.wordsFound = wordsFound;
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package com.bezkoder.spring.security.mongodb.service.wordhunt;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Open {@link PlaySession}s, by id and by (user, date) so a player who opens
+ * a second session for the same day resumes the first one.
+ *
+ * Both maps are {@link ConcurrentHashMap}s, whose per-bin locking already
+ * stripes writers; each session then guards its own state. Sessions idle for
+ * longer than {@code wordhunt.sessions.ttl-minutes} are handed back by
+ * {@link #evictIdle()} so the caller can commit them.
+ */
+@Component
+public class PlaySessionStore {
+  private final long ttlNanos;
+  private final ConcurrentMap<String, PlaySession> byId = new ConcurrentHashMap<>();
+  private final ConcurrentMap<PlayerDay, PlaySession> byPlayer = new ConcurrentHashMap<>();
+
+  private final LongAdder opened = new LongAdder();
+  private final LongAdder closed = new LongAdder();
+  private final LongAdder expired = new LongAdder();
+
+  @Autowired
+  public PlaySessionStore(@Value("${wordhunt.sessions.ttl-minutes:30}") long ttlMinutes) {
+    this.ttlNanos = TimeUnit.MINUTES.toNanos(Math.max(1, ttlMinutes));
+  }
+
+  /** The player's open session for {@code date}, or a new one on {@code board}. */
+  public PlaySession open(String userId, String username, LocalDate date, SolvedBoard board) {
+    return byPlayer.computeIfAbsent(new PlayerDay(userId, date), k -> {
+      PlaySession session = new PlaySession(UUID.randomUUID().toString(), userId, username, date, board);
+      byId.put(session.id, session);
+      opened.increment();
+      return session;
+    });
+  }
+
+  public PlaySession get(String id) {
+    return byId.get(id);
+  }
+
+  /**
+   * Closes and removes the session. Returns its words, or null when another
+   * caller closed it first.
+   */
+  public List<String> close(PlaySession session) {
+    List<String> words = session.close();
+    if (words != null) {
+      remove(session);
+      closed.increment();
+    }
+    return words;
+  }
+
+  /** Removes sessions idle for longer than the TTL and returns them, still open. */
+  public List<PlaySession> evictIdle() {
+    long cutoff = System.nanoTime() - ttlNanos;
+    List<PlaySession> idle = new ArrayList<>();
+    for (PlaySession session : byId.values()) {
+      if (session.lastTouched() - cutoff < 0 && byId.remove(session.id, session)) {
+        byPlayer.remove(new PlayerDay(session.userId, session.date), session);
+        expired.increment();
+        idle.add(session);
+      }
+    }
+    return idle;
+  }
+
+  public Stats stats() {
+    return new Stats(byId.size(), opened.sum(), closed.sum(), expired.sum());
+  }
+
+  private void remove(PlaySession session) {
+    byId.remove(session.id, session);
+    byPlayer.remove(new PlayerDay(session.userId, session.date), session);
+  }
+
+  private record PlayerDay(String userId, LocalDate date) {}
+
+  public static class Stats {
+    public final int open;
+    public final long opened;
+    public final long committed;
+    public final long expired;
+
+    public Stats(int open, long opened, long committed, long expired) {
+      this.open = open;
+      this.opened = opened;
+      this.committed = committed;
+      this.expired = expired;
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package com.bezkoder.spring.security.mongodb.service.wordhunt;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket histogram of one day's scores, from 0 up to the board's max
+ * score. Buckets are one point wide unless that would exceed
+ * {@link #MAX_BUCKETS}, in which case they widen evenly. Updates are lock-free;
+ * every query is a single pass over the buckets.
+ */
+public final class ScoreHistogram {
+  static final int MAX_BUCKETS = 1024;
+
+  private final int maxScore;
+  private final int width;
+  private final AtomicLongArray buckets;
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+
+  public ScoreHistogram(int maxScore) {
+    this.maxScore = Math.max(0, maxScore);
+    this.width = Math.max(1, (this.maxScore + MAX_BUCKETS) / MAX_BUCKETS);
+    this.buckets = new AtomicLongArray(this.maxScore / width + 1);
+  }
+
+  public void add(int score, long n) {
+    buckets.addAndGet(bucketOf(score), n);
+    count.add(n);
+    sum.add(n * Math.max(0, score));
+  }
+
+  public long count() {
+    return count.sum();
+  }
+
+  public double mean() {
+    long n = count.sum();
+    return n == 0 ? 0.0 : (double) sum.sum() / n;
+  }
+
+  /** Lowest score at or below which {@code p} percent of players fall. */
+  public int percentile(double p) {
+    long n = count.sum();
+    if (n == 0) return 0;
+    long target = (long) Math.ceil(n * Math.min(100.0, Math.max(0.0, p)) / 100.0);
+    long seen = 0;
+    for (int i = 0; i < buckets.length(); i++) {
+      seen += buckets.get(i);
+      if (seen >= Math.max(1, target)) return Math.min(maxScore, i * width);
+    }
+    return maxScore;
+  }
+
+  /** Percentage of players whose score is strictly below {@code score}. */
+  public double percentBelow(int score) {
+    long n = count.sum();
+    if (n == 0) return 0.0;
+    long below = 0;
+    for (int i = 0, end = bucketOf(score); i < end; i++) {
+      below += buckets.get(i);
+    }
+    return 100.0 * below / n;
+  }
+
+  public int maxScore() {
+    return maxScore;
+  }
+
+  private int bucketOf(int score) {
+    return Math.min(buckets.length() - 1, Math.max(0, score) / width);
+  }
+}
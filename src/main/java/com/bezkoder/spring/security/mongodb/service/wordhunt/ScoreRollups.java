@@ -0,0 +1,341 @@
+package com.bezkoder.spring.security.mongodb.service.wordhunt;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.bezkoder.spring.security.mongodb.domain.wordhunt.WhScore;
+import com.bezkoder.spring.security.mongodb.domain.wordhunt.WhScoreRollup;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.model.RenameCollectionOptions;
+
+/**
+ * Weekly, monthly and all-time totals per player, kept in one collection per
+ * period and indexed on {@code (period, score desc)} so a leaderboard is a
+ * single indexed query.
+ *
+ * Written scores are added with {@code $inc} upserts by {@link ScoreWriteBehind}.
+ * {@link #rebuild()} recomputes every total from {@code wh_scores} in parallel
+ * week-sized chunks; it runs on startup when the rollups are empty. The totals
+ * go into fresh {@code *_rebuild} collections that are then renamed over the
+ * live ones, so increments already in a live collection are never overwritten
+ * field by field and totals for players or periods with no scores left go
+ * away. While a rebuild runs, {@link #apply(List)} holds scores back instead
+ * of writing them; once the rebuilt collections are live, the held scores are
+ * added, except those the rebuild already read from {@code wh_scores}.
+ */
+@Component
+public class ScoreRollups {
+  private static final Logger logger = LoggerFactory.getLogger(ScoreRollups.class);
+  /**
+   * Held-back scores were created at most this long before the rebuild
+   * started (queue delay plus retries), so only read scores newer than that
+   * need remembering.
+   */
+  private static final long RECENT_MS = 5 * 60 * 1000;
+  private static final String STAGING = "_rebuild";
+  private static final LeaderboardPeriod[] PERIODS = { LeaderboardPeriod.WEEK, LeaderboardPeriod.MONTH, LeaderboardPeriod.ALL };
+
+  private final MongoTemplate mongoTemplate;
+  private final int backfillThreads;
+  private final AtomicBoolean rebuilding = new AtomicBoolean();
+  /** Scores applied during a rebuild; guarded by itself, as is the switch between deferring and writing. */
+  private final List<WhScore> deferred = new ArrayList<>();
+  private final LongAdder failures = new LongAdder();
+
+  @Autowired
+  public ScoreRollups(MongoTemplate mongoTemplate,
+                      @Value("${wordhunt.rollups.backfill-threads:4}") int backfillThreads) {
+    this.mongoTemplate = mongoTemplate;
+    this.backfillThreads = Math.max(1, backfillThreads);
+  }
+
+  /** Adds freshly written scores to every rollup. Failures are logged, not thrown. */
+  public void apply(List<WhScore> scores) {
+    if (scores.isEmpty()) return;
+    synchronized (deferred) {
+      if (rebuilding.get()) {
+        deferred.addAll(scores);
+        return;
+      }
+    }
+    increment(scores);
+  }
+
+  private void increment(List<WhScore> scores) {
+    OffsetDateTime now = OffsetDateTime.now();
+    for (LeaderboardPeriod period : PERIODS) {
+      try {
+        BulkOperations ops = mongoTemplate.bulkOps(BulkMode.UNORDERED, WhScoreRollup.class, period.collection());
+        for (WhScore s : scores) {
+          String key = period.keyFor(s.getDate());
+          ops.upsert(query(where("_id").is(WhScoreRollup.idFor(key, s.getUserId()))),
+              new Update()
+                  .inc("score", s.getScore())
+                  .inc("wordsFound", s.getWordsFound())
+                  .inc("games", 1)
+                  .setOnInsert("period", key)
+                  .setOnInsert("userId", s.getUserId())
+                  .set("username", s.getUsername())
+                  .set("updatedAt", now));
+        }
+        ops.execute();
+      } catch (RuntimeException e) {
+        failures.increment();
+        logger.error("Could not update {} for {} WordHunt scores: {}", period.collection(), scores.size(), e.getMessage());
+      }
+    }
+  }
+
+  public List<DailyLeaderboard.Ranked> top(LeaderboardPeriod period, LocalDate date, int limit) {
+    Query q = query(where("period").is(period.keyFor(date)))
+        .with(Sort.by(Sort.Direction.DESC, "score"))
+        .limit(limit);
+    q.fields().include("username", "score", "wordsFound");
+    List<WhScoreRollup> docs = mongoTemplate.find(q, WhScoreRollup.class, period.collection());
+    List<DailyLeaderboard.Ranked> rows = new ArrayList<>(docs.size());
+    int rank = 0;
+    for (int i = 0; i < docs.size(); i++) {
+      WhScoreRollup d = docs.get(i);
+      if (i == 0 || d.getScore() != docs.get(i - 1).getScore()) {
+        rank = i + 1;
+      }
+      rows.add(new DailyLeaderboard.Ranked(
+          new DailyLeaderboard.Entry(d.getUserId(), d.getUsername(), d.getScore(), d.getWordsFound()), rank));
+    }
+    return rows;
+  }
+
+  public long failures() {
+    return failures.sum();
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void init() {
+    try {
+      for (LeaderboardPeriod period : PERIODS) {
+        ensureIndex(period.collection());
+      }
+      boolean empty = !mongoTemplate.exists(new Query(), LeaderboardPeriod.ALL.collection());
+      if (empty && mongoTemplate.exists(new Query(), WhScore.class)) {
+        Thread backfill = new Thread(this::rebuild, "wh-rollup-backfill");
+        backfill.setDaemon(true);
+        backfill.start();
+      }
+    } catch (RuntimeException e) {
+      logger.warn("Could not prepare WordHunt rollups: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Recomputes all rollups from {@code wh_scores}. Each ISO week is read by a
+   * separate task on the {@code date_score_idx} prefix; weekly totals are
+   * written as soon as their week is done, monthly and all-time totals once
+   * every chunk has been merged. The live collections are replaced only after
+   * all three are written; if the rebuild fails they are left as they were.
+   */
+  public Backfill rebuild() {
+    synchronized (deferred) {
+      if (!rebuilding.compareAndSet(false, true)) {
+        throw new IllegalStateException("A WordHunt rollup rebuild is already running");
+      }
+    }
+    long start = System.nanoTime();
+    // Ids of recently created scores the rebuild reads, to tell which held-back scores it already counted.
+    long recentFrom = System.currentTimeMillis() - RECENT_MS;
+    Set<String> recentRead = ConcurrentHashMap.newKeySet();
+    ExecutorService pool = Executors.newFixedThreadPool(backfillThreads, r -> new Thread(r, "wh-rollup-chunk"));
+    try {
+      for (LeaderboardPeriod period : PERIODS) {
+        String staging = period.collection() + STAGING;
+        // Left over if an earlier rebuild failed.
+        mongoTemplate.dropCollection(staging);
+        mongoTemplate.createCollection(staging);
+        ensureIndex(staging);
+      }
+      LocalDate first = boundary(Sort.Direction.ASC);
+      LocalDate last = boundary(Sort.Direction.DESC);
+      ConcurrentMap<String, Totals> monthly = new ConcurrentHashMap<>();
+      ConcurrentMap<String, Totals> alltime = new ConcurrentHashMap<>();
+      LongAdder scores = new LongAdder();
+      LongAdder weekly = new LongAdder();
+      List<CompletableFuture<Void>> chunks = new ArrayList<>();
+      // With no scores at all, the empty staging collections still replace the live ones.
+      if (first != null) {
+        for (LocalDate monday = first.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+             !monday.isAfter(last); monday = monday.plusWeeks(1)) {
+          LocalDate from = monday;
+          chunks.add(CompletableFuture.runAsync(() -> {
+            Map<String, Totals> week = new HashMap<>();
+            for (WhScore s : readWeek(from)) {
+              scores.increment();
+              if (createdAt(s) >= recentFrom) recentRead.add(s.getId());
+              add(week, LeaderboardPeriod.WEEK, s);
+              add(monthly, LeaderboardPeriod.MONTH, s);
+              add(alltime, LeaderboardPeriod.ALL, s);
+            }
+            write(LeaderboardPeriod.WEEK, week.values());
+            weekly.add(week.size());
+          }, pool));
+        }
+      }
+      CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0])).join();
+      write(LeaderboardPeriod.MONTH, monthly.values());
+      write(LeaderboardPeriod.ALL, alltime.values());
+      String database = mongoTemplate.getDb().getName();
+      for (LeaderboardPeriod period : PERIODS) {
+        mongoTemplate.getCollection(period.collection() + STAGING).renameCollection(
+            new MongoNamespace(database, period.collection()), new RenameCollectionOptions().dropTarget(true));
+      }
+      int held = drainDeferred(recentRead);
+
+      Backfill result = new Backfill(chunks.size(), scores.sum(), weekly.sum(), monthly.size(), alltime.size(),
+          (System.nanoTime() - start) / 1_000_000);
+      logger.info("Rebuilt WordHunt rollups from {} scores in {} chunks, then added {} held-back scores ({} ms)",
+          result.scores, result.chunks, held, result.elapsedMs);
+      return result;
+    } finally {
+      pool.shutdown();
+      drainDeferred(Set.of());
+    }
+  }
+
+  /**
+   * Ends deferral and writes the scores held back during the rebuild, other
+   * than those in {@code counted}. Returns how many were written.
+   */
+  private int drainDeferred(Set<String> counted) {
+    List<WhScore> held;
+    synchronized (deferred) {
+      if (!rebuilding.get()) return 0;
+      held = new ArrayList<>(deferred);
+      deferred.clear();
+      rebuilding.set(false);
+    }
+    List<WhScore> missing = held.stream().filter(s -> !counted.contains(s.getId())).toList();
+    if (!missing.isEmpty()) {
+      increment(missing);
+    }
+    return missing.size();
+  }
+
+  private static long createdAt(WhScore s) {
+    return ObjectId.isValid(s.getId()) ? new ObjectId(s.getId()).getDate().getTime() : Long.MAX_VALUE;
+  }
+
+  private LocalDate boundary(Sort.Direction direction) {
+    Query q = new Query().with(Sort.by(direction, "date")).limit(1);
+    q.fields().include("date");
+    WhScore s = mongoTemplate.findOne(q, WhScore.class);
+    return s == null ? null : s.getDate();
+  }
+
+  private List<WhScore> readWeek(LocalDate monday) {
+    Query q = query(where("date").gte(monday).lt(monday.plusWeeks(1)));
+    q.fields().include("userId", "username", "date", "score", "wordsFound");
+    return mongoTemplate.find(q, WhScore.class);
+  }
+
+  private static void add(Map<String, Totals> totals, LeaderboardPeriod period, WhScore s) {
+    String key = period.keyFor(s.getDate());
+    totals.computeIfAbsent(WhScoreRollup.idFor(key, s.getUserId()), id -> new Totals(key, s.getUserId()))
+        .add(s);
+  }
+
+  private void ensureIndex(String collection) {
+    mongoTemplate.indexOps(collection).ensureIndex(
+        new Index().on("period", Sort.Direction.ASC).on("score", Sort.Direction.DESC).named("period_score_idx"));
+  }
+
+  /** Inserts rebuilt totals into the period's staging collection. */
+  private void write(LeaderboardPeriod period, Collection<Totals> totals) {
+    if (totals.isEmpty()) return;
+    OffsetDateTime now = OffsetDateTime.now();
+    BulkOperations ops = mongoTemplate.bulkOps(BulkMode.UNORDERED, WhScoreRollup.class, period.collection() + STAGING);
+    for (Totals t : totals) {
+      WhScoreRollup doc = new WhScoreRollup();
+      doc.setId(WhScoreRollup.idFor(t.period, t.userId));
+      doc.setPeriod(t.period);
+      doc.setUserId(t.userId);
+      doc.setUsername(t.username);
+      doc.setScore(t.score);
+      doc.setWordsFound(t.wordsFound);
+      doc.setGames(t.games);
+      doc.setUpdatedAt(now);
+      ops.insert(doc);
+    }
+    ops.execute();
+  }
+
+  private static final class Totals {
+    final String period;
+    final String userId;
+    String username;
+    int score;
+    int wordsFound;
+    int games;
+
+    Totals(String period, String userId) {
+      this.period = period;
+      this.userId = userId;
+    }
+
+    synchronized void add(WhScore s) {
+      username = s.getUsername();
+      score += s.getScore();
+      wordsFound += s.getWordsFound();
+      games++;
+    }
+  }
+
+  public static class Backfill {
+    public final int chunks;
+    public final long scores;
+    public final long weekly;
+    public final int monthly;
+    public final int alltime;
+    public final long elapsedMs;
+
+    public Backfill(int chunks, long scores, long weekly, int monthly, int alltime, long elapsedMs) {
+      this.chunks = chunks;
+      this.scores = scores;
+      this.weekly = weekly;
+      this.monthly = monthly;
+      this.alltime = alltime;
+      this.elapsedMs = elapsedMs;
+    }
+  }
+}
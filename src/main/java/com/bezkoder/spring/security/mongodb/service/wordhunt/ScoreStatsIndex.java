@@ -0,0 +1,118 @@
+package com.bezkoder.spring.security.mongodb.service.wordhunt;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+
+import java.time.LocalDate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.bezkoder.spring.security.mongodb.domain.wordhunt.WhScore;
+
+/**
+ * {@link ScoreHistogram} per date, sized to the max score of that day's
+ * default board. A day is rebuilt with one {@code $group} on (date, score)
+ * the first time it is needed and then maintained from accepted submissions.
+ * As for {@link LeaderboardIndex}, only today and the retained days before it
+ * are held; other dates are refused before a board or histogram is made.
+ */
+@Component
+public class ScoreStatsIndex {
+  private static final Logger logger = LoggerFactory.getLogger(ScoreStatsIndex.class);
+
+  private final MongoTemplate mongoTemplate;
+  private final DailyBoardCache boards;
+  private final int retentionDays;
+  private final ConcurrentMap<LocalDate, Day> days = new ConcurrentHashMap<>();
+
+  @Autowired
+  public ScoreStatsIndex(MongoTemplate mongoTemplate, DailyBoardCache boards,
+                         @Value("${wordhunt.leaderboard.retention-days:7}") int retentionDays) {
+    this.mongoTemplate = mongoTemplate;
+    this.boards = boards;
+    this.retentionDays = Math.max(1, retentionDays);
+  }
+
+  public ScoreHistogram forDate(LocalDate date) {
+    if (!inWindow(date)) {
+      throw new IllegalArgumentException("No score statistics for " + date);
+    }
+    return days.computeIfAbsent(date, Day::new).get();
+  }
+
+  private boolean inWindow(LocalDate date) {
+    LocalDate today = LocalDate.now();
+    return !date.isAfter(today) && !date.isBefore(today.minusDays(retentionDays));
+  }
+
+  /** The day's histogram if it is already in memory, without loading it. */
+  public ScoreHistogram ifLoaded(LocalDate date) {
+    Day day = days.get(date);
+    return day == null ? null : day.histogram;
+  }
+
+  public void record(LocalDate date, int score) {
+    if (!inWindow(date)) return;
+    forDate(date).add(score, 1);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    try {
+      forDate(LocalDate.now());
+    } catch (RuntimeException e) {
+      logger.warn("Could not rebuild WordHunt score histogram: {}", e.getMessage());
+    }
+  }
+
+  @Scheduled(cron = "${wordhunt.board-cache.roll-cron:5 0 0 * * *}")
+  public void evictOldDays() {
+    LocalDate oldest = LocalDate.now().minusDays(retentionDays);
+    days.keySet().removeIf(d -> d.isBefore(oldest));
+  }
+
+  private ScoreHistogram load(LocalDate date) {
+    ScoreHistogram histogram = new ScoreHistogram(boards.get(date, GridGeometry.DEFAULT_SIZE).maxScore);
+    Aggregation aggregation = newAggregation(
+        match(Criteria.where("date").is(date)),
+        group("score").count().as("count"));
+    for (Document row : mongoTemplate.aggregate(aggregation, WhScore.class, Document.class)) {
+      histogram.add(((Number) row.get("_id")).intValue(), ((Number) row.get("count")).longValue());
+    }
+    return histogram;
+  }
+
+  private final class Day {
+    private final LocalDate date;
+    private volatile ScoreHistogram histogram;
+
+    Day(LocalDate date) {
+      this.date = date;
+    }
+
+    ScoreHistogram get() {
+      ScoreHistogram h = histogram;
+      if (h != null) return h;
+      synchronized (this) {
+        if (histogram == null) {
+          histogram = load(date);
+        }
+        return histogram;
+      }
+    }
+  }
+}
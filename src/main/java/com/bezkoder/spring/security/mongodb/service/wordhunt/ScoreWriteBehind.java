@@ -0,0 +1,368 @@
+package com.bezkoder.spring.security.mongodb.service.wordhunt;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.bson.BsonDocument;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.bezkoder.spring.security.mongodb.domain.wordhunt.WhScore;
+import com.mongodb.bulk.BulkWriteError;
+
+/**
+ * Buffers accepted {@link WhScore} documents and inserts them in unordered
+ * bulk writes, flushing when {@code batch-size} documents are waiting or
+ * {@code max-delay-ms} after the first one arrived.
+ *
+ * Scores get their id before they are queued, so a retried batch that was
+ * partly written is recognised by a duplicate {@code _id} (from the error's
+ * key pattern, or by looking the ids up) and not treated as a second
+ * submission. A duplicate on {@code user_date_idx} means another
+ * instance accepted the same player's day first; the local leaderboard and
+ * histogram are rolled back in memory. When the queue is full, the score
+ * is written synchronously instead.
+ *
+ * Scores that still cannot be written after {@code MAX_ATTEMPTS} quick tries
+ * (Mongo unreachable, say) are set aside and retried with a growing backoff
+ * of up to {@code MAX_BACKOFF_MS}; accepted scores are only given up on if
+ * they are still unwritten at shutdown. On shutdown the queue and the retry
+ * list are drained before the Mongo client closes. Every document that lands
+ * is added to the weekly, monthly and all-time {@link ScoreRollups}.
+ */
+@Component
+public class ScoreWriteBehind implements SmartLifecycle {
+  private static final Logger logger = LoggerFactory.getLogger(ScoreWriteBehind.class);
+  private static final int DUPLICATE_KEY = 11000;
+  private static final int MAX_ATTEMPTS = 3;
+  private static final long MIN_BACKOFF_MS = 500;
+  private static final long MAX_BACKOFF_MS = 30_000;
+
+  private final MongoTemplate mongoTemplate;
+  private final LeaderboardIndex leaderboards;
+  private final ScoreStatsIndex scoreStats;
+  private final ScoreRollups rollups;
+  private final BlockingQueue<WhScore> queue;
+  /** Scores set aside after failed attempts, written again once {@link #retryAtNanos} has passed. */
+  private final Queue<WhScore> retrying = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger retryRound = new AtomicInteger();
+  private volatile long retryAtNanos;
+  private final int batchSize;
+  private final long maxDelayNanos;
+
+  private final LongAdder written = new LongAdder();
+  private final LongAdder batches = new LongAdder();
+  private final LongAdder duplicates = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final LongAdder synchronousWrites = new LongAdder();
+  private final LongAdder flushNanos = new LongAdder();
+  private final AtomicLong lastFlushNanos = new AtomicLong();
+  private final AtomicLong maxFlushNanos = new AtomicLong();
+
+  private volatile boolean running;
+  private Thread flusher;
+
+  @Autowired
+  public ScoreWriteBehind(MongoTemplate mongoTemplate, LeaderboardIndex leaderboards, ScoreStatsIndex scoreStats,
+                          ScoreRollups rollups,
+                          @Value("${wordhunt.write-behind.capacity:10000}") int capacity,
+                          @Value("${wordhunt.write-behind.batch-size:500}") int batchSize,
+                          @Value("${wordhunt.write-behind.max-delay-ms:20}") long maxDelayMs) {
+    this.mongoTemplate = mongoTemplate;
+    this.leaderboards = leaderboards;
+    this.scoreStats = scoreStats;
+    this.rollups = rollups;
+    this.queue = new ArrayBlockingQueue<>(capacity);
+    this.batchSize = batchSize;
+    this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+  }
+
+  public void enqueue(WhScore score) {
+    if (score.getId() == null) {
+      score.setId(new ObjectId().toHexString());
+    }
+    if (!running || !queue.offer(score)) {
+      synchronousWrites.increment();
+      flush(List.of(score));
+    }
+  }
+
+  @Override
+  public synchronized void start() {
+    if (running) return;
+    running = true;
+    flusher = new Thread(this::run, "wh-score-writer");
+    flusher.setDaemon(true);
+    flusher.start();
+  }
+
+  @Override
+  public synchronized void stop() {
+    running = false;
+    if (flusher != null) {
+      try {
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      flusher = null;
+    }
+    // Anything enqueued while the flusher was exiting, and anything still waiting for a retry.
+    List<WhScore> rest = new ArrayList<>();
+    queue.drainTo(rest);
+    drainRetrying(rest, Integer.MAX_VALUE);
+    if (!rest.isEmpty()) {
+      flush(rest);
+    }
+    List<WhScore> lost = new ArrayList<>();
+    drainRetrying(lost, Integer.MAX_VALUE);
+    if (!lost.isEmpty()) {
+      failed.add(lost.size());
+      for (WhScore doc : lost) {
+        logger.error("Dropping WordHunt score for {} on {} (score {}) at shutdown: Mongo did not accept it",
+            doc.getUserId(), doc.getDate(), doc.getScore());
+      }
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  public Stats stats() {
+    long n = batches.sum();
+    return new Stats(queue.size(), retrying.size(), written.sum(), n, duplicates.sum(), failed.sum(), synchronousWrites.sum(),
+        rollups.failures(), n == 0 ? 0.0 : flushNanos.sum() / 1e6 / n, lastFlushNanos.get() / 1e6, maxFlushNanos.get() / 1e6);
+  }
+
+  private void run() {
+    List<WhScore> batch = new ArrayList<>(batchSize);
+    while (running || !queue.isEmpty()) {
+      retryIfDue();
+      try {
+        WhScore first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) continue;
+        batch.add(first);
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (batch.size() < batchSize) {
+          long remaining = deadline - System.nanoTime();
+          WhScore next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+          if (next == null) break;
+          batch.add(next);
+        }
+      } catch (InterruptedException e) {
+        queue.drainTo(batch, batchSize - batch.size());
+      }
+      if (!batch.isEmpty()) {
+        try {
+          flush(batch);
+        } catch (RuntimeException e) {
+          logger.error("Unexpected error flushing {} WordHunt scores", batch.size(), e);
+        }
+        batch.clear();
+      }
+    }
+  }
+
+  /** Writes set-aside scores again once their backoff has passed. */
+  private void retryIfDue() {
+    if (retrying.isEmpty() || System.nanoTime() - retryAtNanos < 0) return;
+    List<WhScore> docs = new ArrayList<>(batchSize);
+    drainRetrying(docs, batchSize);
+    try {
+      flush(docs);
+    } catch (RuntimeException e) {
+      logger.error("Unexpected error retrying {} WordHunt scores", docs.size(), e);
+      retrying.addAll(docs);
+    }
+  }
+
+  private void drainRetrying(List<WhScore> into, int max) {
+    WhScore doc;
+    for (int i = 0; i < max && (doc = retrying.poll()) != null; i++) {
+      into.add(doc);
+    }
+  }
+
+  private void flush(List<WhScore> batch) {
+    long start = System.nanoTime();
+    List<WhScore> pending = batch;
+    RuntimeException cause = null;
+    for (int attempt = 1; attempt <= MAX_ATTEMPTS && !pending.isEmpty(); attempt++) {
+      try {
+        pending = insert(pending);
+      } catch (RuntimeException e) {
+        cause = e;
+      }
+      if (!pending.isEmpty() && attempt < MAX_ATTEMPTS) {
+        sleep(100L * attempt);
+      }
+    }
+    if (pending.isEmpty()) {
+      retryRound.set(0);
+    } else {
+      setAside(pending, cause);
+    }
+    long elapsed = System.nanoTime() - start;
+    batches.increment();
+    flushNanos.add(elapsed);
+    lastFlushNanos.set(elapsed);
+    maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+  }
+
+  /**
+   * Inserts {@code docs} and returns the ones worth retrying. Throws if the
+   * bulk write failed as a whole, in which case all of them are.
+   */
+  private List<WhScore> insert(List<WhScore> docs) {
+    try {
+      mongoTemplate.bulkOps(BulkMode.UNORDERED, WhScore.class).insert(docs).execute();
+      written.add(docs.size());
+      rollups.apply(docs);
+      return List.of();
+    } catch (BulkOperationException e) {
+      List<WhScore> retry = new ArrayList<>();
+      List<WhScore> inserted = new ArrayList<>();
+      List<WhScore> unclassified = new ArrayList<>();
+      boolean[] rejected = new boolean[docs.size()];
+      for (BulkWriteError error : e.getErrors()) {
+        WhScore doc = docs.get(error.getIndex());
+        rejected[error.getIndex()] = true;
+        if (error.getCode() != DUPLICATE_KEY) {
+          retry.add(doc);
+          continue;
+        }
+        Boolean ownId = duplicateId(error);
+        if (ownId == null) {
+          unclassified.add(doc);
+        } else if (ownId) {
+          inserted.add(doc); // written by an earlier attempt that failed before acknowledging
+        } else {
+          duplicates.increment();
+          rollBack(doc);
+        }
+      }
+      if (!unclassified.isEmpty()) {
+        Set<String> stored = storedIds(unclassified);
+        for (WhScore doc : unclassified) {
+          if (stored.contains(doc.getId())) {
+            inserted.add(doc);
+          } else {
+            duplicates.increment();
+            rollBack(doc);
+          }
+        }
+      }
+      for (int i = 0; i < rejected.length; i++) {
+        if (!rejected[i]) inserted.add(docs.get(i));
+      }
+      written.add(inserted.size());
+      rollups.apply(inserted);
+      return retry;
+    }
+  }
+
+  /**
+   * Whether a duplicate key error is on {@code _id}, from the key pattern
+   * in its details; {@code null} if the server did not report one. The
+   * message is not used: it quotes the key values, which players choose.
+   */
+  static Boolean duplicateId(BulkWriteError error) {
+    BsonDocument details = error.getDetails();
+    if (details == null || !details.isDocument("keyPattern")) return null;
+    return details.getDocument("keyPattern").keySet().equals(Set.of("_id"));
+  }
+
+  private Set<String> storedIds(List<WhScore> docs) {
+    Query query = new Query(where("id").in(docs.stream().map(WhScore::getId).toList()));
+    query.fields().include("id");
+    Set<String> ids = new HashSet<>();
+    mongoTemplate.find(query, WhScore.class).forEach(doc -> ids.add(doc.getId()));
+    return ids;
+  }
+
+  private void setAside(List<WhScore> docs, RuntimeException cause) {
+    retrying.addAll(docs);
+    int round = retryRound.incrementAndGet();
+    long backoff = Math.min(MAX_BACKOFF_MS, MIN_BACKOFF_MS << Math.min(round - 1, 16));
+    retryAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff);
+    logger.warn("Could not write {} WordHunt scores, retrying in {} ms ({} waiting): {}", docs.size(), backoff,
+        retrying.size(), cause == null ? "rejected by Mongo" : cause.getMessage());
+  }
+
+  /**
+   * Undoes the in-memory effects of a score Mongo rejected because another
+   * instance stored the player's day first. Only touches days already in
+   * memory: a day loaded later comes from Mongo and never had this score.
+   */
+  private void rollBack(WhScore doc) {
+    try {
+      ScoreHistogram histogram = scoreStats.ifLoaded(doc.getDate());
+      if (histogram != null) histogram.add(doc.getScore(), -1);
+      DailyLeaderboard board = leaderboards.ifLoaded(doc.getDate());
+      if (board != null) board.remove(doc.getUserId());
+    } catch (RuntimeException e) {
+      logger.warn("Could not roll back WordHunt score for {} on {}: {}", doc.getUserId(), doc.getDate(),
+          e.getMessage());
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  public static class Stats {
+    public final int queueDepth;
+    public final int retrying;
+    public final long written;
+    public final long batches;
+    public final long duplicates;
+    public final long failed;
+    public final long synchronousWrites;
+    public final long rollupFailures;
+    public final double avgFlushMs;
+    public final double lastFlushMs;
+    public final double maxFlushMs;
+
+    public Stats(int queueDepth, int retrying, long written, long batches, long duplicates, long failed, long synchronousWrites,
+                 long rollupFailures, double avgFlushMs, double lastFlushMs, double maxFlushMs) {
+      this.queueDepth = queueDepth;
+      this.retrying = retrying;
+      this.written = written;
+      this.batches = batches;
+      this.duplicates = duplicates;
+      this.failed = failed;
+      this.synchronousWrites = synchronousWrites;
+      this.rollupFailures = rollupFailures;
+      this.avgFlushMs = avgFlushMs;
+      this.lastFlushMs = lastFlushMs;
+      this.maxFlushMs = maxFlushMs;
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package com.bezkoder.spring.security.mongodb.service.wordhunt;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * A daily grid together with every dictionary word that can be traced on it.
+ * Instances are immutable and safe to share between requests.
+ */
+public final class SolvedBoard {
+  public final LocalDate date;
+  public final long seed;
+  public final int size;
+  public final int wordCount;
+  public final int maxScore;
+
+  private final char[][] grid;
+  private final char[] cells;
+  private final Map<String, Integer> scores;
+  private final ConcurrentMap<String, byte[]> encodings = new ConcurrentHashMap<>();
+
+  SolvedBoard(LocalDate date, long seed, char[][] grid, Map<String, Integer> scores) {
+    this.date = date;
+    this.seed = seed;
+    this.size = grid.length;
+    this.grid = copy(grid);
+    this.cells = GridGeometry.flatten(grid);
+    this.scores = Collections.unmodifiableMap(scores);
+    this.wordCount = scores.size();
+    this.maxScore = scores.values().stream().mapToInt(Integer::intValue).sum();
+  }
+
+  /** Points for {@code word} (upper case), or 0 when it is not on this board. */
+  public int scoreOf(String word) {
+    Integer points = scores.get(word);
+    return points == null ? 0 : points;
+  }
+
+  public boolean contains(String word) {
+    return scores.containsKey(word);
+  }
+
+  /**
+   * Whether {@code word} can be traced on the grid, regardless of the
+   * dictionary. Useful to tell "not on the board" apart from "not a word".
+   */
+  public boolean isTraceable(CharSequence word) {
+    return GridPathValidator.forCurrentThread().isOnGrid(word, cells, GridGeometry.of(size));
+  }
+
+  public Map<String, Integer> words() {
+    return scores;
+  }
+
+  /**
+   * A serialised form of this board, computed once per {@code key} and kept
+   * for as long as the board is cached. The returned array must not be modified.
+   */
+  public byte[] encoded(String key, Function<SolvedBoard, byte[]> encoder) {
+    return encodings.computeIfAbsent(key, k -> encoder.apply(this));
+  }
+
+  public char[][] grid() {
+    return copy(grid);
+  }
+
+  private static char[][] copy(char[][] grid) {
+    char[][] out = new char[grid.length][];
+    for (int r = 0; r < grid.length; r++) {
+      out[r] = grid[r].clone();
+    }
+    return out;
+  }
+}
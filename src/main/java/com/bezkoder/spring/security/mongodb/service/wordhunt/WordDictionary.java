@@ -0,0 +1,47 @@
+package com.bezkoder.spring.security.mongodb.service.wordhunt;
+
+/**
+ * Read-only word list used to validate and enumerate WordHunt words.
+ *
+ * Besides whole-word and prefix checks, implementations expose their
+ * automaton as integer node handles so callers can walk it one letter at a
+ * time (e.g. while searching a grid) without building strings.
+ */
+public interface WordDictionary {
+
+  /** Returned by {@link #step(int, char)} when no word continues with the letter. */
+  int NO_NODE = -1;
+
+  boolean contains(CharSequence word);
+
+  boolean hasPrefix(CharSequence prefix);
+
+  int root();
+
+  int step(int node, char letter);
+
+  boolean isWord(int node);
+
+  int size();
+
+  Footprint footprint();
+
+  public static class Footprint {
+    public final int words;
+    public final int nodes;
+    public final int edges;
+    public final long bytes;
+
+    public Footprint(int words, int nodes, int edges, long bytes) {
+      this.words = words;
+      this.nodes = nodes;
+      this.edges = edges;
+      this.bytes = bytes;
+    }
+
+    @Override
+    public String toString() {
+      return words + " words, " + nodes + " nodes, " + edges + " edges, " + (bytes / 1024) + " KiB";
+    }
+  }
+}
@@ -1,6 +1,6 @@
 (() => {
   const api = {
-    getGames: () => fetch('/api/store/games').then(r => r.json()),
+    getGames: () => fetch('/api/store/games?fields=id,title,developer,description,category,rating,price,imageUrl').then(r => r.json()),
     createUser: (data) => fetch('/api/store/users', {
       method: 'POST',
       headers: { 'Content-Type': 'application/json' },
@@ -17,7 +17,18 @@
       headers: { 'Content-Type': 'application/json' },
       body: JSON.stringify(data)
     }).then(r => r.json()),
-    getUserPurchases: (username) => fetch(`/api/store/users/${username}/purchases`).then(r => r.json()),
+    getUserPurchases: async (username) => {
+      // Purchase history is cursor-paged; follow the cursors to show it all.
+      const purchases = [];
+      let cursor = null;
+      do {
+        const query = cursor ? `?limit=100&cursor=${encodeURIComponent(cursor)}` : '?limit=100';
+        const page = await fetch(`/api/store/users/${username}/purchases${query}`).then(r => r.json());
+        purchases.push(...page.items);
+        cursor = page.nextCursor;
+      } while (cursor);
+      return purchases;
+    },
     createSubscription: (data) => fetch('/api/store/subscriptions', {
       method: 'POST',
       headers: { 'Content-Type': 'application/json' },
@@ -27,8 +38,8 @@
     cancelSubscription: (username) => fetch(`/api/store/users/${username}/subscription/cancel`, {
       method: 'POST'
     }).then(r => r.json()),
-    getTopSpenders: (limit = 10) => fetch(`/api/store/analytics/top-spenders?limit=${limit}`).then(r => r.json()),
-    getTopBuyers: (limit = 10) => fetch(`/api/store/analytics/top-buyers?limit=${limit}`).then(r => r.json()),
+    getTopSpenders: (limit = 10) => fetch(`/api/store/analytics/top-spenders?limit=${limit}`).then(r => r.json()).then(page => page.items),
+    getTopBuyers: (limit = 10) => fetch(`/api/store/analytics/top-buyers?limit=${limit}`).then(r => r.json()).then(page => page.items),
     getStoreStats: () => fetch('/api/store/analytics/stats').then(r => r.json())
   };
 
@@ -0,0 +1,141 @@
+package com.bezkoder.spring.security.mongodb.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+
+import com.bezkoder.spring.security.mongodb.domain.store.Game;
+import com.bezkoder.spring.security.mongodb.domain.store.Purchase;
+import com.bezkoder.spring.security.mongodb.domain.store.UserProfile;
+import com.bezkoder.spring.security.mongodb.repository.GameRepository;
+import com.bezkoder.spring.security.mongodb.repository.PurchaseRepository;
+import com.bezkoder.spring.security.mongodb.repository.SubscriptionRepository;
+import com.bezkoder.spring.security.mongodb.repository.UserProfileRepository;
+import com.bezkoder.spring.security.mongodb.service.GameStoreService.CheckoutItem;
+import com.bezkoder.spring.security.mongodb.service.store.GameCatalog;
+import com.bezkoder.spring.security.mongodb.service.store.OwnershipIndex;
+import com.bezkoder.spring.security.mongodb.service.store.ProfileKeyCache;
+import com.bezkoder.spring.security.mongodb.service.store.StoreCounters;
+import com.bezkoder.spring.security.mongodb.service.store.SubscriptionBilling;
+
+class GameStoreServiceTests {
+
+	private static final BigDecimal PRICE = new BigDecimal("59.99");
+
+	private final PurchaseRepository purchaseRepository = mock(PurchaseRepository.class);
+	private final UserProfileRepository userProfileRepository = mock(UserProfileRepository.class);
+	private final GameCatalog catalog = mock(GameCatalog.class);
+	private final OwnershipIndex ownership = mock(OwnershipIndex.class);
+	private final ProfileKeyCache profiles = mock(ProfileKeyCache.class);
+	private final StoreCounters counters = mock(StoreCounters.class);
+	private final GameStoreService service = new GameStoreService(mock(GameRepository.class), purchaseRepository,
+			mock(SubscriptionRepository.class), userProfileRepository, catalog, ownership, profiles,
+			mock(SubscriptionBilling.class), counters);
+
+	private final List<Purchase> purchases = List.of(
+			purchase("g1", "59.99"),
+			purchase("g2", "24.99"),
+			purchase("g3", "0.00"),
+			purchase("g4", "9.99"));
+
+	@Test
+	void refundsOnlyRejectedPurchases() {
+		// g2 already owned, g4 failed for another reason
+		Map<Integer, Integer> rejected = Map.of(1, 11000, 3, 121);
+
+		assertEquals(new BigDecimal("34.98"), GameStoreService.refundFor(purchases, rejected));
+		assertEquals(BigDecimal.ZERO, GameStoreService.refundFor(purchases, Map.of()));
+	}
+
+	@Test
+	void refundsEverythingWhenNothingWasStored() {
+		Map<Integer, Integer> rejected = Map.of(0, 11000, 1, 11000, 2, 11000, 3, 11000);
+
+		assertEquals(new BigDecimal("94.97"), GameStoreService.refundFor(purchases, rejected));
+	}
+
+	@Test
+	void mapsInsertErrorsToItemStatus() {
+		assertEquals(CheckoutItem.PURCHASED, GameStoreService.itemStatus(null));
+		assertEquals(CheckoutItem.ALREADY_OWNED, GameStoreService.itemStatus(11000));
+		assertEquals(CheckoutItem.FAILED, GameStoreService.itemStatus(121));
+	}
+
+	@Test
+	void refundsOnceWhenTheGameIsAlreadyOwned() {
+		stubGameAndCharge();
+		when(purchaseRepository.insert(any(Purchase.class))).thenThrow(new DuplicateKeyException("E11000"));
+
+		GameStoreService.PurchaseResult result = service.purchaseGame("alice", "g1", "WALLET");
+
+		assertFalse(result.isSuccess());
+		assertEquals("Game already purchased", result.getMessage());
+		verify(userProfileRepository, times(1)).refundGames("u1", PRICE, 1);
+		verify(counters, never()).purchased(any());
+		verify(ownership, never()).onPurchased(any(), any());
+	}
+
+	@Test
+	void refundsOnceAndRethrowsWhenTheInsertFails() {
+		stubGameAndCharge();
+		DataAccessResourceFailureException failure = new DataAccessResourceFailureException("down");
+		when(purchaseRepository.insert(any(Purchase.class))).thenThrow(failure);
+
+		assertSame(failure, assertThrows(DataAccessResourceFailureException.class,
+				() -> service.purchaseGame("alice", "g1", "WALLET")));
+		verify(userProfileRepository, times(1)).refundGames("u1", PRICE, 1);
+	}
+
+	@Test
+	void recordsNothingWhenTheDebitIsDeclined() {
+		stubGameAndCharge();
+		when(userProfileRepository.chargeForGames("alice", PRICE, 1)).thenReturn(null);
+		when(profiles.get("alice")).thenReturn(Optional.empty());
+
+		GameStoreService.PurchaseResult result = service.purchaseGame("alice", "g1", "WALLET");
+
+		assertFalse(result.isSuccess());
+		verify(purchaseRepository, never()).insert(any(Purchase.class));
+		verify(userProfileRepository, never()).refundGames(anyString(), any(), anyInt());
+		verify(counters, never()).purchased(any());
+	}
+
+	@Test
+	void rejectsNonPositiveTopUps() {
+		assertThrows(IllegalArgumentException.class, () -> service.addToWallet("alice", null));
+		assertThrows(IllegalArgumentException.class, () -> service.addToWallet("alice", BigDecimal.ZERO));
+		assertThrows(IllegalArgumentException.class, () -> service.addToWallet("alice", new BigDecimal("-5")));
+		verify(userProfileRepository, never()).creditWallet(anyString(), any());
+	}
+
+	private void stubGameAndCharge() {
+		Game game = new Game("Elden Ring", "", "FromSoftware", PRICE, "RPG");
+		game.setId("g1");
+		when(catalog.byId("g1")).thenReturn(Optional.of(game));
+		UserProfile user = new UserProfile("alice", "alice@example.com", "Alice");
+		user.setId("u1");
+		when(userProfileRepository.chargeForGames("alice", PRICE, 1)).thenReturn(user);
+	}
+
+	private static Purchase purchase(String gameId, String price) {
+		return new Purchase("u1", "alice", gameId, gameId, new BigDecimal(price));
+	}
+}
@@ -0,0 +1,77 @@
+package com.bezkoder.spring.security.mongodb.service.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.bezkoder.spring.security.mongodb.domain.store.Game;
+
+class FacetIndexTests {
+
+	private final List<Game> games = List.of(
+			game("Elden Ring", "RPG", "59.99", 4.8, "souls", "open-world"),
+			game("Hades", "Roguelike", "24.99", 4.9, "indie"),
+			game("Valorant", "FPS", "0.00", 4.0, "competitive"),
+			game("Baldur's Gate 3", "RPG", "59.99", 4.6, "open-world"),
+			game("Dead Cells", "Roguelike", "9.99", 4.5, "indie", "souls"));
+	private final FacetIndex index = new FacetIndex(games);
+	private final SearchIndex search = new SearchIndex(games);
+
+	@Test
+	void combinesFiltersAndCountsOtherDimensions() {
+		GameQuery q = new GameQuery();
+		q.setCategories(List.of("RPG", "Roguelike"));
+		q.setTags(List.of("souls"));
+		q.setOrder(GameQuery.Order.PRICE_ASC);
+
+		GameQueryResult r = index.run(q, search, null);
+
+		assertEquals(List.of("Dead Cells", "Elden Ring"), titles(r.getGames()));
+		// Category counts ignore the category filter but keep the tag filter.
+		assertEquals(Map.of("RPG", 1, "Roguelike", 1), r.getFacets().get(FacetIndex.CATEGORY));
+		// Tag counts ignore the tag filter but keep the category filter.
+		assertEquals(Map.of("open-world", 2, "indie", 2, "souls", 2), r.getFacets().get(FacetIndex.TAG));
+	}
+
+	@Test
+	void appliesInclusivePriceAndRatingRanges() {
+		GameQuery q = new GameQuery();
+		q.setMinPrice(new BigDecimal("9.99"));
+		q.setMaxPrice(new BigDecimal("59.99"));
+		q.setMinRating(4.6);
+		q.setOrder(GameQuery.Order.RATING);
+
+		GameQueryResult r = index.run(q, search, null);
+
+		assertEquals(List.of("Hades", "Elden Ring", "Baldur's Gate 3"), titles(r.getGames()));
+		assertEquals(Map.of("10-30", 1, "30-60", 2), r.getFacets().get(FacetIndex.PRICE));
+	}
+
+	@Test
+	void ranksTextMatchesAndPages() {
+		GameQuery q = new GameQuery();
+		q.setText("open");
+		q.setSize(1);
+		q.setPage(1);
+
+		GameQueryResult r = index.run(q, search, null);
+
+		assertEquals(2, r.getTotal());
+		assertEquals(List.of("Baldur's Gate 3"), titles(r.getGames()));
+	}
+
+	private static List<String> titles(List<Game> games) {
+		return games.stream().map(Game::getTitle).toList();
+	}
+
+	private static Game game(String title, String category, String price, double rating, String... tags) {
+		Game g = new Game(title, title, "Studio", new BigDecimal(price), category);
+		g.setRating(rating);
+		g.setTags(List.of(tags));
+		return g;
+	}
+}
@@ -0,0 +1,57 @@
+package com.bezkoder.spring.security.mongodb.service.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.bezkoder.spring.security.mongodb.domain.store.Game;
+
+class SearchIndexTests {
+
+	private final SearchIndex index = new SearchIndex(List.of(
+			game("1", "Pokémon Arceus", "Game Freak", "RPG"),
+			game("2", "The Witcher 3: Wild Hunt", "CD Projekt RED", "RPG"),
+			game("3", "Cyberpunk 2077", "CD Projekt RED", "RPG"),
+			game("4", "Wild Hearts", "Omega Force", "Action", "Hunt monsters with friends")));
+
+	@Test
+	void normalisesAccentsAndCase() {
+		assertEquals(List.of("pokemon", "arceus"), SearchIndex.tokens("  POKÉMON—Arceus "));
+		assertEquals("1", index.search("pokemon", 5).get(0).getId());
+		assertEquals("1", index.search("Poké", 5).get(0).getId());
+	}
+
+	@Test
+	void everyTokenMustMatchAsAPrefix() {
+		assertEquals(List.of("2"), ids(index.search("wild witch", 5)));
+		assertEquals(List.of("3", "2"), ids(index.search("projekt", 5)));
+		assertTrue(index.search("wild zelda", 5).isEmpty());
+		assertTrue(index.search("a.*", 5).stream().noneMatch(g -> g.getId().equals("3")));
+	}
+
+	@Test
+	void titleMatchesRankAboveOtherFields() {
+		assertEquals(List.of("2", "4"), ids(index.search("hunt", 5)));
+		assertEquals(List.of("3"), ids(index.search("cyber", 1)));
+	}
+
+	private static List<String> ids(List<Game> games) {
+		return games.stream().map(Game::getId).toList();
+	}
+
+	private static Game game(String id, String title, String developer, String category) {
+		return game(id, title, developer, category, title + " description");
+	}
+
+	private static Game game(String id, String title, String developer, String category, String description) {
+		Game g = new Game(title, description, developer, new BigDecimal("9.99"), category);
+		g.setId(id);
+		g.setPublisher(developer);
+		g.setTags(List.of(category.toLowerCase()));
+		return g;
+	}
+}
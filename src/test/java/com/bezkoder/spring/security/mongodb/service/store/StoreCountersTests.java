@@ -0,0 +1,127 @@
+package com.bezkoder.spring.security.mongodb.service.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.bezkoder.spring.security.mongodb.domain.store.StoreCounter;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+
+class StoreCountersTests {
+
+	private static final String COMPLETED = StoreCounters.PURCHASES_BY_STATUS + "COMPLETED";
+	private static final String GAME = StoreCounters.PURCHASES_BY_GAME + "g1";
+	private static final String PREMIUM = StoreCounters.ACTIVE_BY_TYPE + "PREMIUM";
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final BulkOperations ops = mock(BulkOperations.class);
+	private final StoreCounters counters = new StoreCounters(mongoTemplate, 5000);
+	/** Counter ids in the order the last flush queued them. */
+	private final List<String> upserted = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		when(mongoTemplate.bulkOps(any(), eq(StoreCounter.class))).thenReturn(ops);
+		when(ops.upsert(any(Query.class), any(Update.class))).thenAnswer(inv -> {
+			upserted.add(inv.<Query>getArgument(0).getQueryObject().getString("id"));
+			return ops;
+		});
+	}
+
+	@Test
+	void flushReplacesPendingChangesWithTheStoredTotals() {
+		counters.unsubscribed("PREMIUM");
+		assertEquals(-1, counters.get(StoreCounters.ACTIVE_SUBSCRIPTIONS));
+		stored(StoreCounters.ACTIVE_SUBSCRIPTIONS, 4, PREMIUM, 4);
+
+		counters.flush();
+
+		assertEquals(4, counters.get(StoreCounters.ACTIVE_SUBSCRIPTIONS));
+		assertEquals(4, counters.get(PREMIUM));
+		assertEquals(Set.of(StoreCounters.ACTIVE_SUBSCRIPTIONS, PREMIUM), Set.copyOf(upserted));
+	}
+
+	@Test
+	void partialFlushKeepsOnlyTheFailedWritesPending() {
+		counters.unsubscribed("PREMIUM");
+		when(ops.execute()).thenAnswer(inv -> {
+			int failed = upserted.indexOf(StoreCounters.ACTIVE_SUBSCRIPTIONS);
+			BulkWriteError error = new BulkWriteError(112, "write conflict", new BsonDocument(), failed);
+			throw new BulkOperationException("write conflict", new MongoBulkWriteException(
+					BulkWriteResult.unacknowledged(), List.of(error), null, new ServerAddress(), Set.of()));
+		});
+		// The type counter was written, the overall one was not.
+		stored(StoreCounters.ACTIVE_SUBSCRIPTIONS, 5, PREMIUM, 4);
+
+		assertThrows(BulkOperationException.class, counters::flush);
+
+		assertEquals(4, counters.get(StoreCounters.ACTIVE_SUBSCRIPTIONS));
+		assertEquals(4, counters.get(PREMIUM));
+		upserted.clear();
+		doReturn(null).when(ops).execute();
+		counters.flush();
+		assertEquals(List.of(StoreCounters.ACTIVE_SUBSCRIPTIONS), upserted);
+	}
+
+	@Test
+	void purchaseDuringReconcileIsNotCountedTwice() {
+		// 10 stored, then a purchase lands: the recount sees 11 and the flush
+		// that carries it moves the stored value to 11 before the fence.
+		Map<String, Long> before = Map.of(COMPLETED, 10L, GAME, 4L);
+		Map<String, Long> expected = Map.of(COMPLETED, 11L, GAME, 5L);
+		Map<String, Long> after = Map.of(COMPLETED, 11L, GAME, 5L);
+
+		assertEquals(Map.of(), StoreCounters.corrections(expected, before, after));
+	}
+
+	@Test
+	void correctsQuietCountersThatDrifted() {
+		Map<String, Long> before = Map.of(COMPLETED, 12L, GAME, 4L, StoreCounters.ACTIVE_SUBSCRIPTIONS, 3L);
+		Map<String, Long> expected = Map.of(COMPLETED, 11L, GAME, 4L, StoreCounters.PURCHASES_BY_DAY + "2024-03-01", 2L);
+
+		assertEquals(Map.of(COMPLETED, 11L, StoreCounters.ACTIVE_SUBSCRIPTIONS, 0L,
+				StoreCounters.PURCHASES_BY_DAY + "2024-03-01", 2L),
+				StoreCounters.corrections(expected, before, before));
+	}
+
+	@Test
+	void leavesCounterCreatedDuringReconcileAlone() {
+		String day = StoreCounters.PURCHASES_BY_DAY + "2024-03-02";
+		Map<String, Long> expected = Map.of(day, 1L);
+
+		assertEquals(Map.of(), StoreCounters.corrections(expected, Map.of(), Map.of(day, 1L)));
+	}
+
+	private void stored(String id1, long value1, String id2, long value2) {
+		when(mongoTemplate.findAll(StoreCounter.class)).thenReturn(List.of(counter(id1, value1), counter(id2, value2)));
+	}
+
+	private static StoreCounter counter(String id, long value) {
+		StoreCounter c = new StoreCounter();
+		ReflectionTestUtils.setField(c, "id", id);
+		ReflectionTestUtils.setField(c, "value", value);
+		return c;
+	}
+}
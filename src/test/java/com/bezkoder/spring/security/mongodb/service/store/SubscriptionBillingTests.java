@@ -0,0 +1,192 @@
+package com.bezkoder.spring.security.mongodb.service.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.bezkoder.spring.security.mongodb.domain.store.BillingCheckpoint;
+import com.bezkoder.spring.security.mongodb.domain.store.Subscription;
+import com.bezkoder.spring.security.mongodb.domain.store.UserProfile;
+import com.bezkoder.spring.security.mongodb.repository.UserProfileRepository;
+import com.bezkoder.spring.security.mongodb.repository.UserProfileRepositoryImpl;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
+
+class SubscriptionBillingTests {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final UserProfileRepository wallets = mock(UserProfileRepository.class);
+	private final StoreCounters counters = mock(StoreCounters.class);
+	private final BulkOperations ops = mock(BulkOperations.class);
+	private final BillingCheckpoint checkpoint = new BillingCheckpoint();
+	/** What the claim lookup returns, and what a resumed run finds still claimed. */
+	private List<Subscription> claimed = new ArrayList<>();
+	private List<Subscription> leftOver = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+				eq(BillingCheckpoint.class))).thenReturn(checkpoint);
+		when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(BillingCheckpoint.class)))
+				.thenReturn(UpdateResult.acknowledged(1, 1L, null));
+		when(mongoTemplate.bulkOps(any(), eq(Subscription.class))).thenReturn(ops);
+		when(mongoTemplate.find(any(Query.class), eq(Subscription.class))).thenAnswer(inv -> {
+			Document q = inv.<Query>getArgument(0).getQueryObject();
+			return q.containsKey("id") ? claimed : leftOver;
+		});
+	}
+
+	@Test
+	void renewsPaidAndExpiresDeclinedSubscriptions() {
+		Subscription paid = subscription("s1", "u1", LocalDateTime.now().minusDays(1));
+		Subscription declined = subscription("s2", "u2", LocalDateTime.now().minusDays(1));
+		due(paid, declined);
+		claimed = List.of(paid, declined);
+		settledCount(2);
+		when(wallets.chargeForRenewal(eq("u1"), any(), anyString())).thenReturn(true);
+		when(wallets.chargeForRenewal(eq("u2"), any(), anyString())).thenReturn(false);
+
+		SubscriptionBilling.Run run = billing(10).run();
+
+		assertEquals(2, run.scanned);
+		assertEquals(1, run.renewed);
+		assertEquals(1, run.expired);
+		verify(ops).updateOne(any(Query.class), argThat((Update u) -> set(u).containsKey("nextBillingDate")));
+		verify(ops).updateOne(any(Query.class), argThat((Update u) -> "EXPIRED".equals(set(u).get("status"))));
+		verify(counters).unsubscribed("PREMIUM");
+		verify(wallets).clearPremium(List.of("u2"));
+		verify(wallets).chargeForRenewal("u1", new BigDecimal("9.99"), run.runId + ":s1");
+	}
+
+	@Test
+	void refundsSubscriptionCancelledBeforeSettlement() {
+		Subscription paid = subscription("s1", "u1", LocalDateTime.now().minusDays(1));
+		due(paid);
+		claimed = List.of(paid);
+		settledCount(0);
+		when(wallets.chargeForRenewal(any(), any(), anyString())).thenReturn(true);
+		when(wallets.refundRenewal(any(), any(), anyString())).thenReturn(true);
+
+		SubscriptionBilling.Run run = billing(10).run();
+
+		assertEquals(0, run.renewed);
+		assertEquals(1, run.refunded);
+		verify(wallets).refundRenewal("u1", new BigDecimal("9.99"), run.runId + ":s1");
+	}
+
+	@Test
+	void resumedRunChargesLeftOverClaimsUnderTheirOriginalId() {
+		ReflectionTestUtils.setField(checkpoint, "runId", "run1");
+		ReflectionTestUtils.setField(checkpoint, "cutoff", LocalDateTime.now());
+		Subscription interrupted = subscription("s1", "u1", LocalDateTime.now().minusDays(1));
+		leftOver = List.of(interrupted);
+		due();
+		settledCount(1);
+		when(wallets.chargeForRenewal(any(), any(), anyString())).thenReturn(true);
+
+		SubscriptionBilling.Run run = billing(10).run();
+
+		assertTrue(run.resumed);
+		assertEquals(1, run.recovered);
+		assertEquals(1, run.renewed);
+		verify(wallets).chargeForRenewal("u1", new BigDecimal("9.99"), "run1:s1");
+	}
+
+	@Test
+	void repeatedChargeIdDoesNotTouchTheWalletAgain() {
+		MongoTemplate template = mock(MongoTemplate.class);
+		when(template.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(UserProfile.class)))
+				.thenReturn(UpdateResult.acknowledged(0, 0L, null));
+		when(template.exists(any(Query.class), eq(UserProfile.class))).thenReturn(true);
+
+		assertTrue(new UserProfileRepositoryImpl(template).chargeForRenewal("u1", new BigDecimal("9.99"), "run1:s1"));
+		verify(template).updateFirst(argThat(q -> q.getQueryObject().get("renewalCharges", Document.class)
+				.get("$ne").equals("run1:s1")), any(UpdateDefinition.class), eq(UserProfile.class));
+	}
+
+	@Test
+	void stopsWhenTheLeaseIsLost() {
+		due(subscription("s1", "u1", LocalDateTime.now().minusDays(2)),
+				subscription("s2", "u2", LocalDateTime.now().minusDays(1)));
+		claimed = List.of(subscription("s1", "u1", LocalDateTime.now().minusDays(2)));
+		settledCount(1);
+		when(wallets.chargeForRenewal(any(), any(), anyString())).thenReturn(true);
+		when(mongoTemplate.updateFirst(argThat(q -> q.getQueryObject().containsKey("runId")), any(UpdateDefinition.class),
+				eq(BillingCheckpoint.class))).thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+		SubscriptionBilling billing = billing(1);
+		billing.run();
+
+		verify(wallets, times(1)).chargeForRenewal(any(), any(), anyString());
+		verify(mongoTemplate, never()).updateFirst(any(Query.class),
+				argThat((UpdateDefinition u) -> Boolean.TRUE.equals(set((Update) u).get("finished"))),
+				eq(BillingCheckpoint.class));
+		assertNull(billing.lastRun());
+	}
+
+	@Test
+	void renewalStepsWholeMonthsPastTheCutoff() {
+		LocalDateTime cutoff = LocalDateTime.of(2024, 5, 10, 12, 0);
+		Subscription s = subscription("s1", "u1", LocalDateTime.of(2024, 2, 10, 12, 0));
+
+		Document set = set(SubscriptionBilling.renewal("run1", s, cutoff, cutoff));
+		assertEquals(LocalDateTime.of(2024, 6, 10, 12, 0), set.get("nextBillingDate"));
+		assertEquals("run1", set.get("lastBillingRun"));
+
+		s.setNextBillingDate(LocalDateTime.of(2024, 5, 9, 0, 0));
+		assertEquals(LocalDateTime.of(2024, 6, 9, 0, 0),
+				set(SubscriptionBilling.renewal("run1", s, cutoff, cutoff)).get("nextBillingDate"));
+	}
+
+	private SubscriptionBilling billing(int chunkSize) {
+		return new SubscriptionBilling(mongoTemplate, wallets, mock(ProfileKeyCache.class), counters, chunkSize, 2,
+				60_000);
+	}
+
+	private void due(Subscription... subscriptions) {
+		when(mongoTemplate.stream(any(Query.class), eq(Subscription.class))).thenAnswer(inv -> Stream.of(subscriptions));
+	}
+
+	private void settledCount(int matched) {
+		BulkWriteResult result = mock(BulkWriteResult.class);
+		when(result.getMatchedCount()).thenReturn(matched);
+		when(ops.execute()).thenReturn(result);
+	}
+
+	private static Document set(Update update) {
+		return update.getUpdateObject().get("$set", Document.class);
+	}
+
+	private static Subscription subscription(String id, String userId, LocalDateTime nextBillingDate) {
+		Subscription s = new Subscription(userId, userId, "PREMIUM", new BigDecimal("9.99"));
+		s.setId(id);
+		s.setNextBillingDate(nextBillingDate);
+		return s;
+	}
+}
@@ -0,0 +1,35 @@
+package com.bezkoder.spring.security.mongodb.service.wordhunt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+class BoardPregeneratorTests {
+
+	@Test
+	void choiceDoesNotDependOnParallelism() throws Exception {
+		WordDictionary dictionary;
+		try (InputStream in = getClass().getResourceAsStream("/wordhunt/words.txt")) {
+			dictionary = DawgDictionary.load(in);
+		}
+		BoardSolver solver = new BoardSolver(dictionary);
+		LocalDate date = LocalDate.of(2024, 3, 1);
+		long daySeed = BoardGenerator.defaultSeed(date);
+
+		BoardPregenerator.Choice serial = pregenerator(solver, 1).search(date, daySeed, 4);
+		BoardPregenerator.Choice parallel = pregenerator(solver, 4).search(date, daySeed, 4);
+
+		assertTrue(serial.meetsTargets);
+		assertTrue(serial.words >= 60 && serial.longWords >= 5);
+		assertEquals(serial.seed, parallel.seed);
+		assertEquals(serial.index, parallel.index);
+	}
+
+	private static BoardPregenerator pregenerator(BoardSolver solver, int parallelism) {
+		return new BoardPregenerator(null, solver, null, 7, new int[] { 4 }, 60, 5, 6, 512, parallelism);
+	}
+}
@@ -0,0 +1,63 @@
+package com.bezkoder.spring.security.mongodb.service.wordhunt;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.bezkoder.spring.security.mongodb.domain.wordhunt.WhDailySeed;
+import com.bezkoder.spring.security.mongodb.repository.WhDailySeedRepository;
+
+class DailyBoardCacheTests {
+
+	private static final LocalDate DATE = LocalDate.of(2024, 3, 1);
+
+	private final WhDailySeedRepository seedRepository = mock(WhDailySeedRepository.class);
+	private final BoardSolver solver = mock(BoardSolver.class);
+	private final DailyBoardCache cache = new DailyBoardCache(seedRepository, solver, 64);
+
+	@Test
+	void concurrentMissesShareOneSolve() throws Exception {
+		when(seedRepository.findOrCreate(eq(DATE), anyLong())).thenReturn(new WhDailySeed(DATE, 42L));
+		SolvedBoard board = mock(SolvedBoard.class);
+		CountDownLatch solving = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(solver.solve(eq(DATE), anyLong(), any())).thenAnswer(inv -> {
+			solving.countDown();
+			release.await();
+			return board;
+		});
+
+		CompletableFuture<SolvedBoard> first = CompletableFuture.supplyAsync(() -> cache.get(DATE, 4));
+		assertTrue(solving.await(5, TimeUnit.SECONDS));
+		CompletableFuture<SolvedBoard> second = CompletableFuture.supplyAsync(() -> cache.get(DATE, 4));
+		release.countDown();
+
+		assertSame(board, first.get(5, TimeUnit.SECONDS));
+		assertSame(board, second.get(5, TimeUnit.SECONDS));
+		verify(solver, times(1)).solve(eq(DATE), anyLong(), any());
+	}
+
+	@Test
+	void failedSolveIsRetriedByTheNextCaller() {
+		when(seedRepository.findOrCreate(eq(DATE), anyLong())).thenReturn(new WhDailySeed(DATE, 42L));
+		SolvedBoard board = mock(SolvedBoard.class);
+		when(solver.solve(eq(DATE), anyLong(), any())).thenThrow(new IllegalStateException("boom")).thenReturn(board);
+
+		assertThrows(IllegalStateException.class, () -> cache.get(DATE, 4));
+		assertSame(board, cache.get(DATE, 4));
+	}
+}
@@ -0,0 +1,59 @@
+package com.bezkoder.spring.security.mongodb.service.wordhunt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+class DailyLeaderboardTests {
+
+	@Test
+	void ranksWithTiesAndUpdates() {
+		DailyLeaderboard board = new DailyLeaderboard();
+		board.put("ann", "ann", 10, 5);
+		board.put("bob", "bob", 30, 9);
+		board.put("cat", "cat", 10, 4);
+		board.put("dan", "dan", 5, 2);
+
+		assertEquals(1, board.rankOf("bob"));
+		assertEquals(2, board.rankOf("ann"));
+		assertEquals(2, board.rankOf("cat"));
+		assertEquals(4, board.rankOf("dan"));
+		assertEquals(0, board.rankOf("eve"));
+
+		board.put("dan", "dan", 40, 12);
+		assertEquals(1, board.rankOf("dan"));
+		assertEquals(2, board.rankOf("bob"));
+		assertEquals(4, board.size());
+	}
+
+	@Test
+	void topAndAround() {
+		DailyLeaderboard board = new DailyLeaderboard();
+		for (int i = 0; i < 10; i++) {
+			board.put("u" + i, "u" + i, i * 3, i);
+		}
+
+		assertEquals(List.of("u9", "u8", "u7"), names(board.top(3)));
+		assertEquals(List.of("u6", "u5", "u4", "u3", "u2"), names(board.around("u4", 2)));
+		assertEquals(List.of("u9", "u8"), names(board.around("u9", 1)));
+	}
+
+	@Test
+	void growsPastInitialScoreRange() {
+		DailyLeaderboard board = new DailyLeaderboard();
+		board.put("low", "low", 3, 1);
+		board.put("high", "high", 500, 40);
+		board.put("mid", "mid", 63, 20);
+
+		assertEquals(1, board.rankOf("high"));
+		assertEquals(2, board.rankOf("mid"));
+		assertEquals(3, board.rankOf("low"));
+	}
+
+	private static List<String> names(List<DailyLeaderboard.Ranked> rows) {
+		return rows.stream().map(r -> r.username).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,51 @@
+package com.bezkoder.spring.security.mongodb.service.wordhunt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class DawgDictionaryTests {
+
+	@Test
+	void containsAndPrefixes() {
+		DawgDictionary dictionary = DawgDictionary.build(List.of("star", "START", "starts", "tar", "tars", "cat", "x1"));
+
+		assertEquals(6, dictionary.size());
+		assertTrue(dictionary.contains("STAR"));
+		assertTrue(dictionary.contains("starts"));
+		assertTrue(dictionary.contains("TARS"));
+		assertFalse(dictionary.contains("STA"));
+		assertFalse(dictionary.contains("CATS"));
+		assertFalse(dictionary.contains("X1"));
+		assertTrue(dictionary.hasPrefix("STA"));
+		assertTrue(dictionary.hasPrefix(""));
+		assertFalse(dictionary.hasPrefix("Q"));
+	}
+
+	@Test
+	void sharesCommonSuffixes() {
+		DawgDictionary dictionary = DawgDictionary.build(List.of("TAP", "TAPS", "TOP", "TOPS"));
+
+		// T -> {A, O} -> P -> (S): both vowels share the same P/S tail.
+		assertEquals(5, dictionary.footprint().nodes);
+		assertTrue(dictionary.contains("TOPS"));
+		assertFalse(dictionary.contains("TAPO"));
+	}
+
+	@Test
+	void loadsBundledWordList() throws Exception {
+		try (InputStream in = getClass().getResourceAsStream("/wordhunt/words.txt")) {
+			DawgDictionary dictionary = DawgDictionary.load(in);
+
+			assertTrue(dictionary.size() > 100_000);
+			assertTrue(dictionary.contains("RANGER"));
+			assertTrue(dictionary.contains("STONES"));
+			assertFalse(dictionary.contains("XQZV"));
+		}
+	}
+}
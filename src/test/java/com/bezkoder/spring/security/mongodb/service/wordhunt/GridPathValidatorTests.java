@@ -0,0 +1,41 @@
+package com.bezkoder.spring.security.mongodb.service.wordhunt;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class GridPathValidatorTests {
+
+	private static final char[][] GRID = {
+		{ 'S', 'T', 'A' },
+		{ 'E', 'R', 'N' },
+		{ 'O', 'D', 'E' }
+	};
+
+	private final GridPathValidator validator = GridPathValidator.forCurrentThread();
+	private final GridGeometry geometry = GridGeometry.of(3);
+	private final char[] cells = GridGeometry.flatten(GRID);
+
+	@Test
+	void tracesAdjacentPaths() {
+		assertTrue(validator.isOnGrid("STAR", cells, geometry));
+		assertTrue(validator.isOnGrid("stare", cells, geometry));
+		assertTrue(validator.isOnGrid("RED", cells, geometry));
+		assertTrue(validator.isOnGrid("DENT", cells, geometry));
+	}
+
+	@Test
+	void rejectsWrongLastLetter() {
+		// The recursive search used to accept any word whose prefix was traceable.
+		assertFalse(validator.isOnGrid("STAX", cells, geometry));
+		assertFalse(validator.isOnGrid("REDS", cells, geometry));
+	}
+
+	@Test
+	void rejectsReusedAndNonAdjacentCells() {
+		assertFalse(validator.isOnGrid("STATS", cells, geometry));
+		assertFalse(validator.isOnGrid("SAD", cells, geometry));
+		assertFalse(validator.isOnGrid("", cells, geometry));
+	}
+}
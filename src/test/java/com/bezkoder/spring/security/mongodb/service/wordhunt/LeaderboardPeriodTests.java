@@ -0,0 +1,29 @@
+package com.bezkoder.spring.security.mongodb.service.wordhunt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+class LeaderboardPeriodTests {
+
+	@Test
+	void keysFollowIsoWeeksAcrossYearBoundaries() {
+		// 2024-12-30 is the Monday of ISO week 1 of 2025
+		assertEquals("2025-W01", LeaderboardPeriod.WEEK.keyFor(LocalDate.of(2024, 12, 30)));
+		assertEquals("2024-12", LeaderboardPeriod.MONTH.keyFor(LocalDate.of(2024, 12, 30)));
+		assertEquals("2020-W53", LeaderboardPeriod.WEEK.keyFor(LocalDate.of(2021, 1, 3)));
+		assertEquals("all", LeaderboardPeriod.ALL.keyFor(LocalDate.of(2022, 1, 2)));
+		assertEquals("2022-01-02", LeaderboardPeriod.DAY.keyFor(LocalDate.of(2022, 1, 2)));
+	}
+
+	@Test
+	void parsesRequestValues() {
+		assertEquals(LeaderboardPeriod.DAY, LeaderboardPeriod.parse(null));
+		assertEquals(LeaderboardPeriod.WEEK, LeaderboardPeriod.parse("Week"));
+		assertEquals(LeaderboardPeriod.ALL, LeaderboardPeriod.parse("alltime"));
+		assertThrows(IllegalArgumentException.class, () -> LeaderboardPeriod.parse("year"));
+	}
+}
@@ -0,0 +1,44 @@
+package com.bezkoder.spring.security.mongodb.service.wordhunt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class PlaySessionTests {
+
+	private static final char[][] GRID = {
+		{ 'S', 'T', 'A' },
+		{ 'E', 'R', 'N' },
+		{ 'O', 'D', 'E' }
+	};
+
+	private final BoardSolver solver = new BoardSolver(DawgDictionary.build(List.of("STAR", "RED", "DENT")));
+	private final PlaySession session = new PlaySession("s1", "ann", "ann", LocalDate.of(2024, 3, 1),
+			solver.solve(LocalDate.of(2024, 3, 1), 1L, GRID));
+
+	@Test
+	void classifiesEachWord() {
+		assertEquals(PlaySession.Outcome.ACCEPTED, session.tryWord(" star ").outcome);
+		assertEquals(PlaySession.Outcome.DUPLICATE, session.tryWord("STAR").outcome);
+		assertEquals(PlaySession.Outcome.TOO_SHORT, session.tryWord("st").outcome);
+		assertEquals(PlaySession.Outcome.NOT_A_WORD, session.tryWord("TARN").outcome);
+		assertEquals(PlaySession.Outcome.NOT_ON_BOARD, session.tryWord("SAD").outcome);
+
+		PlaySession.Attempt last = session.tryWord("dent");
+		assertEquals(PlaySession.Outcome.ACCEPTED, last.outcome);
+		assertEquals(2, last.score);
+		assertEquals(2, last.wordsFound);
+	}
+
+	@Test
+	void closesOnce() {
+		session.tryWord("RED");
+		assertEquals(List.of("RED"), session.close());
+		assertNull(session.close());
+		assertEquals(PlaySession.Outcome.CLOSED, session.tryWord("STAR").outcome);
+	}
+}
@@ -0,0 +1,97 @@
+package com.bezkoder.spring.security.mongodb.service.wordhunt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.bezkoder.spring.security.mongodb.domain.wordhunt.WhScore;
+import com.bezkoder.spring.security.mongodb.domain.wordhunt.WhScoreRollup;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.RenameCollectionOptions;
+
+class ScoreRollupsTests {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final Map<String, BulkOperations> bulks = new ConcurrentHashMap<>();
+	private final Map<String, MongoCollection<Document>> staged = new ConcurrentHashMap<>();
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		MongoDatabase db = mock(MongoDatabase.class);
+		when(db.getName()).thenReturn("gaming");
+		when(mongoTemplate.getDb()).thenReturn(db);
+		when(mongoTemplate.indexOps(anyString())).thenReturn(mock(IndexOperations.class));
+		when(mongoTemplate.bulkOps(any(), eq(WhScoreRollup.class), anyString()))
+				.thenAnswer(inv -> bulks.computeIfAbsent(inv.getArgument(2), c -> mock(BulkOperations.class)));
+		when(mongoTemplate.getCollection(anyString()))
+				.thenAnswer(inv -> staged.computeIfAbsent(inv.getArgument(0), c -> mock(MongoCollection.class)));
+	}
+
+	@Test
+	void rebuildsIntoStagingAndRenamesOverTheLiveCollections() {
+		WhScore a = score("a1", "u1", LocalDate.of(2024, 3, 4), 10);
+		WhScore b = score("a2", "u1", LocalDate.of(2024, 3, 12), 5);
+		when(mongoTemplate.findOne(any(Query.class), eq(WhScore.class))).thenAnswer(inv ->
+				inv.<Query>getArgument(0).getSortObject().getInteger("date") == 1 ? a : b);
+		when(mongoTemplate.find(any(Query.class), eq(WhScore.class))).thenAnswer(inv -> {
+			LocalDate from = (LocalDate) inv.<Query>getArgument(0).getQueryObject().get("date", Document.class).get("$gte");
+			return from.equals(LocalDate.of(2024, 3, 4)) ? List.of(a) : List.of(b);
+		});
+
+		ScoreRollups.Backfill result = new ScoreRollups(mongoTemplate, 2).rebuild();
+
+		assertEquals(2, result.chunks);
+		assertEquals(2, result.weekly);
+		assertEquals(1, result.alltime);
+		verify(bulks.get("wh_scores_alltime_rebuild")).insert(argThat((WhScoreRollup r) ->
+				r.getId().equals("all:u1") && r.getScore() == 15 && r.getGames() == 2));
+		for (LeaderboardPeriod period : List.of(LeaderboardPeriod.WEEK, LeaderboardPeriod.MONTH, LeaderboardPeriod.ALL)) {
+			verify(mongoTemplate).dropCollection(period.collection() + "_rebuild");
+			verify(staged.get(period.collection() + "_rebuild")).renameCollection(
+					eq(new MongoNamespace("gaming", period.collection())),
+					argThat((RenameCollectionOptions o) -> o.isDropTarget()));
+		}
+		verify(mongoTemplate, never()).bulkOps(any(), eq(WhScoreRollup.class), eq("wh_scores_alltime"));
+	}
+
+	@Test
+	void emptyScoresStillReplaceStaleRollups() {
+		ScoreRollups.Backfill result = new ScoreRollups(mongoTemplate, 2).rebuild();
+
+		assertEquals(0, result.scores);
+		verify(staged.get("wh_scores_weekly_rebuild")).renameCollection(
+				eq(new MongoNamespace("gaming", "wh_scores_weekly")), any(RenameCollectionOptions.class));
+	}
+
+	private static WhScore score(String id, String userId, LocalDate date, int points) {
+		WhScore s = new WhScore();
+		s.setId(id);
+		s.setUserId(userId);
+		s.setUsername(userId);
+		s.setDate(date);
+		s.setScore(points);
+		return s;
+	}
+}
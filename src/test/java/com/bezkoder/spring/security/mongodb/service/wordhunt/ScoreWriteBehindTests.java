@@ -0,0 +1,28 @@
+package com.bezkoder.spring.security.mongodb.service.wordhunt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.bulk.BulkWriteError;
+
+class ScoreWriteBehindTests {
+
+	@Test
+	void classifiesDuplicatesByKeyPatternNotMessage() {
+		// A player named "_id_" must not make a second submission look like a retried write.
+		String message = "E11000 duplicate key error collection: wh_scores index: user_date_idx dup key: { userId: \"_id_\" }";
+		BulkWriteError sameDay = error(message, "{keyPattern: {userId: 1, date: 1}, keyValue: {userId: '_id_'}}");
+		BulkWriteError retried = error("E11000 duplicate key error", "{keyPattern: {_id: 1}, keyValue: {_id: 'x'}}");
+
+		assertEquals(Boolean.FALSE, ScoreWriteBehind.duplicateId(sameDay));
+		assertEquals(Boolean.TRUE, ScoreWriteBehind.duplicateId(retried));
+		assertNull(ScoreWriteBehind.duplicateId(error(message, "{}")));
+	}
+
+	private static BulkWriteError error(String message, String details) {
+		return new BulkWriteError(11000, message, BsonDocument.parse(details), 0);
+	}
+}